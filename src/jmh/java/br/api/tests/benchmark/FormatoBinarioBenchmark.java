@@ -0,0 +1,101 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.config.MensagemJson;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara JSON e CBOR na codificação e decodificação de uma {@link Mensagem} e de uma página de
+ * {@link MensagemResumo}, com os mesmos mapeamentos que a aplicação usa. O tamanho de cada payload é impresso no
+ * início da execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoBinarioBenchmark {
+
+    @Param({"json", "cbor"})
+    public String formato;
+
+    private ObjectMapper objectMapper;
+    private Mensagem mensagem;
+    private Page<MensagemResumo> pagina;
+    private byte[] mensagemCodificada;
+    private byte[] paginaCodificada;
+
+    @Setup
+    public void setup() throws IOException {
+        var builder = "cbor".equals(formato) ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.json();
+        objectMapper = builder
+                .serializers(new MensagemJson.Serializador())
+                .deserializerByType(Mensagem.class, new MensagemJson.Desserializador())
+                .build();
+
+        var timestamp = LocalDateTime.of(2024, 5, 17, 13, 45, 12, 123_450_000);
+        mensagem = Mensagem.builder()
+                .id(UUID.randomUUID())
+                .usuario("joe")
+                .conteudo("reunião de revisão do projeto amanhã às dez, com a equipe toda")
+                .dataCriacao(timestamp)
+                .dataAlteracao(timestamp)
+                .gostei(42)
+                .build();
+        var resumos = new ArrayList<MensagemResumo>();
+        for (int i = 0; i < 50; i++) {
+            resumos.add(new MensagemResumo(UUID.randomUUID(), "usuario " + i, mensagem.getConteudo(),
+                    timestamp, timestamp, i));
+        }
+        pagina = new PageImpl<>(resumos, PageRequest.of(0, 50), 10_000);
+
+        mensagemCodificada = objectMapper.writeValueAsBytes(mensagem);
+        paginaCodificada = objectMapper.writeValueAsBytes(pagina);
+        System.out.printf("%s: mensagem com %d bytes, página de 50 com %d bytes%n",
+                formato, mensagemCodificada.length, paginaCodificada.length);
+    }
+
+    @Benchmark
+    public byte[] codificarMensagem() throws IOException {
+        return objectMapper.writeValueAsBytes(mensagem);
+    }
+
+    @Benchmark
+    public Mensagem decodificarMensagem() throws IOException {
+        return objectMapper.readValue(mensagemCodificada, Mensagem.class);
+    }
+
+    @Benchmark
+    public byte[] codificarPagina() throws IOException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public JsonNode decodificarPagina() throws IOException {
+        return objectMapper.readTree(paginaCodificada);
+    }
+}
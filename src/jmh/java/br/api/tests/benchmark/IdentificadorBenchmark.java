@@ -0,0 +1,95 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.controller.CorpoMensagemCache;
+import br.api.tests.controller.MensagemController;
+import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.model.Mensagem;
+import br.api.tests.service.MensagemService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de interpretar o id recebido no caminho: {@code UUID.fromString} isolado e o
+ * {@link MensagemController} nos caminhos de sucesso, id malformado (400) e mensagem inexistente (404).
+ * O serviço é um proxy sem banco para que só o tratamento do id e das exceções seja medido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentificadorBenchmark {
+
+    private static final String ID_MALFORMADO = "nao-e-um-uuid";
+
+    private MensagemController mensagemController;
+    private String idExistente;
+    private String idInexistente;
+
+    @Setup
+    public void setup() {
+        var mensagem = Mensagem.builder().id(UUID.randomUUID()).usuario("joe").conteudo("xpto test").build();
+        var inexistente = UUID.randomUUID();
+        idExistente = mensagem.getId().toString();
+        idInexistente = inexistente.toString();
+
+        var mensagemService = (MensagemService) Proxy.newProxyInstance(
+                MensagemService.class.getClassLoader(),
+                new Class<?>[]{MensagemService.class},
+                (proxy, metodo, argumentos) -> {
+                    if (inexistente.equals(argumentos[0])) {
+                        throw new MensagemNotFoundException("Mensagem não encontrada.");
+                    }
+                    return mensagem;
+                });
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        mensagemController = new MensagemController(mensagemService, objectMapper,
+                new CorpoMensagemCache(new MensagemProperties(), objectMapper, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public UUID converterId() {
+        return UUID.fromString(idExistente);
+    }
+
+    @Benchmark
+    public Object converterIdMalformado() {
+        try {
+            return UUID.fromString(ID_MALFORMADO);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> controllerIdExistente() {
+        return mensagemController.incrementarGostei(idExistente);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> controllerIdMalformado() {
+        return mensagemController.incrementarGostei(ID_MALFORMADO);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> controllerIdInexistente() {
+        return mensagemController.incrementarGostei(idInexistente);
+    }
+}
@@ -0,0 +1,145 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.model.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Vazão de inserção na chave primária com UUIDs aleatórios (v4) e ordenados pelo tempo (v7). Cada invocação grava
+ * um lote de {@value #LOTE} linhas numa tabela que cresce durante toda a execução; ao final, o tamanho do índice e
+ * as divisões de página são impressos.
+ * <p>
+ * No PostgreSQL os números vêm do {@code pgstatindex} (extensão {@code pgstattuple}): sem remoções, cada página
+ * folha além da primeira resultou de uma divisão. No H2 só há o espaço em disco; o tamanho do arquivo mostra as
+ * páginas reescritas pelo MVStore. Para medir no PostgreSQL:
+ * {@code -Djmh.argumentos="-p url=jdbc:postgresql://localhost:5432/mensagens_db"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(IdentificadorInsercaoBenchmark.LOTE)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdentificadorInsercaoBenchmark {
+
+    static final int LOTE = 1_000;
+
+    @Param({"v4", "v7"})
+    public String versao;
+
+    @Param("jdbc:h2:./target/benchmark-identificador;MODE=PostgreSQL")
+    public String url;
+
+    @Param("user")
+    public String usuario;
+
+    @Param("password")
+    public String senha;
+
+    private Connection conexao;
+    private PreparedStatement insercao;
+    private Supplier<UUID> gerador;
+    private String tabela;
+    private long linhas;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        gerador = "v7".equals(versao) ? UuidV7Generator::proximo : UUID::randomUUID;
+        tabela = "bench_uuid_" + versao;
+        apagarArquivoH2();
+        conexao = DriverManager.getConnection(url, usuario, senha);
+        conexao.setAutoCommit(false);
+        try (var ddl = conexao.createStatement()) {
+            ddl.execute("drop table if exists " + tabela);
+            ddl.execute("create table " + tabela + " (id uuid primary key, conteudo varchar(255))");
+        }
+        conexao.commit();
+        insercao = conexao.prepareStatement("insert into " + tabela + " (id, conteudo) values (?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        System.out.printf("%n%s: %d linhas, %s%n", tabela, linhas, estatisticasIndice());
+        insercao.close();
+        conexao.close();
+    }
+
+    @Benchmark
+    public int[] inserirLote() throws SQLException {
+        for (int i = 0; i < LOTE; i++) {
+            insercao.setObject(1, gerador.get());
+            insercao.setString(2, "conteudo " + linhas++);
+            insercao.addBatch();
+        }
+        var resultado = insercao.executeBatch();
+        conexao.commit();
+        return resultado;
+    }
+
+    private String estatisticasIndice() throws SQLException {
+        if (url.startsWith("jdbc:postgresql")) {
+            return estatisticasPostgres();
+        }
+        try (var consulta = conexao.prepareStatement("select disk_space_used(?)")) {
+            consulta.setString(1, tabela.toUpperCase());
+            try (var resultado = consulta.executeQuery()) {
+                resultado.next();
+                var arquivo = arquivoH2();
+                return String.format("tabela e índice: %d KiB, arquivo do banco: %s", resultado.getLong(1) / 1024,
+                        arquivo == null ? "n/d (em memória)" : arquivo.length() / 1024 + " KiB");
+            }
+        }
+    }
+
+    private String estatisticasPostgres() throws SQLException {
+        var sql = "select pg_relation_size(?::regclass), leaf_pages, avg_leaf_density from pgstatindex(?)";
+        try (var consulta = conexao.prepareStatement(sql)) {
+            consulta.setString(1, tabela + "_pkey");
+            consulta.setString(2, tabela + "_pkey");
+            try (var resultado = consulta.executeQuery()) {
+                resultado.next();
+                var folhas = resultado.getLong(2);
+                return String.format("índice da chave primária: %d KiB, %d páginas folha (%d divisões), "
+                                + "densidade média das folhas: %.1f%%",
+                        resultado.getLong(1) / 1024, folhas, Math.max(folhas - 1, 0), resultado.getDouble(3));
+            }
+        }
+    }
+
+    private void apagarArquivoH2() {
+        var arquivo = arquivoH2();
+        if (arquivo != null) {
+            arquivo.delete();
+        }
+    }
+
+    private File arquivoH2() {
+        if (!url.startsWith("jdbc:h2:") || url.startsWith("jdbc:h2:mem:")) {
+            return null;
+        }
+        var caminho = url.substring("jdbc:h2:".length()).split(";")[0];
+        return new File(caminho + ".mv.db");
+    }
+}
@@ -0,0 +1,105 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.ApiApplication;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.repository.MensagemRepository;
+import br.api.tests.service.MensagemService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listagem por entidades gerenciadas e pela projeção {@link MensagemResumo}. Cada requisição roda numa transação,
+ * como no open-in-view; o tamanho do contexto de persistência ao final de cada uma é impresso no início da execução.
+ * Rode com {@code -Djmh.argumentos="-prof gc"} para obter os bytes alocados por operação
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListagemAlocacaoBenchmark {
+
+    @Param("10000")
+    public int linhas;
+
+    @Param("50")
+    public int tamanhoPagina;
+
+    private ConfigurableApplicationContext contexto;
+    private MensagemService mensagemService;
+    private MensagemRepository mensagemRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transacao;
+    private Pageable pagina;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--logging.level.root=WARN");
+        mensagemService = contexto.getBean(MensagemService.class);
+        mensagemRepository = contexto.getBean(MensagemRepository.class);
+        entityManager = contexto.getBean(EntityManager.class);
+        transacao = contexto.getBean(TransactionTemplate.class);
+
+        var mensagens = new ArrayList<Mensagem>(linhas);
+        for (int i = 0; i < linhas; i++) {
+            mensagens.add(Mensagem.builder().usuario("usuario " + i % 100).conteudo("conteudo " + i).build());
+        }
+        mensagemService.registrarMensagens(mensagens);
+        pagina = PageRequest.of(0, tamanhoPagina);
+
+        System.out.printf("%nentidades no contexto de persistência: %d (entidades), %d (projeção)%n",
+                entidadesGerenciadas(() -> mensagemRepository.findAll(pagina).getContent()),
+                entidadesGerenciadas(() -> mensagemService.listasMensagens(pagina).getContent()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Mensagem> entidades() {
+        return transacao.execute(status -> mensagemRepository.findAll(pagina).getContent());
+    }
+
+    @Benchmark
+    public List<MensagemResumo> projecao() {
+        return transacao.execute(status -> mensagemService.listasMensagens(pagina).getContent());
+    }
+
+    private int entidadesGerenciadas(Runnable requisicao) {
+        return transacao.execute(status -> {
+            requisicao.run();
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.ApiApplication;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.service.MensagemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações do {@code MensagemServiceImpl} contra o H2 embarcado do perfil de teste, com a aplicação
+ * inteira de pé (cache, índice de busca, ranking e contador incluídos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MensagemServiceBenchmark {
+
+    @Param("10000")
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private MensagemService mensagemService;
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--logging.level.root=WARN");
+        mensagemService = contexto.getBean(MensagemService.class);
+
+        var mensagens = new ArrayList<Mensagem>(linhas);
+        for (int i = 0; i < linhas; i++) {
+            mensagens.add(Mensagem.builder().usuario("usuario " + i % 100).conteudo("conteudo " + i).build());
+        }
+        ids = mensagemService.registrarMensagens(mensagens);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Mensagem buscarMensagem() {
+        return mensagemService.buscarMensagem(idAleatorio());
+    }
+
+    @Benchmark
+    public List<MensagemResumo> listarPrimeiraPagina() {
+        return mensagemService.listasMensagens(PageRequest.of(0, 50)).getContent();
+    }
+
+    @Benchmark
+    public Mensagem registrarMensagem() {
+        return mensagemService.registrarMensagem(
+                Mensagem.builder().usuario("joe").conteudo("xpto test").build());
+    }
+
+    @Benchmark
+    public Mensagem incrementarGostei() {
+        return mensagemService.incrementarGostei(idAleatorio());
+    }
+
+    @Benchmark
+    public List<Mensagem> buscarPorTexto() {
+        return mensagemService.buscarPorTexto("conteudo", 10);
+    }
+
+    private UUID idAleatorio() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
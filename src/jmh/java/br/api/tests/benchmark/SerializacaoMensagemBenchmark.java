@@ -0,0 +1,79 @@
+package br.api.tests.benchmark;
+
+import br.api.tests.config.MensagemJson;
+import br.api.tests.model.Mensagem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de serializar e desserializar uma {@link Mensagem}, incluindo as datas no padrão do {@code @JsonFormat}.
+ * Compara as anotações da entidade, num {@link ObjectMapper} com os padrões do Spring Boot, com o
+ * {@link MensagemJson} escrito à mão que a aplicação registra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoMensagemBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper objectMapperManual;
+    private Mensagem mensagem;
+    private String json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapperManual = Jackson2ObjectMapperBuilder.json()
+                .serializers(new MensagemJson.Serializador())
+                .deserializerByType(Mensagem.class, new MensagemJson.Desserializador())
+                .build();
+        var timestamp = LocalDateTime.of(2024, 5, 17, 13, 45, 12, 123_450_000);
+        mensagem = Mensagem.builder()
+                .id(UUID.randomUUID())
+                .usuario("joe")
+                .conteudo("xpto test")
+                .dataCriacao(timestamp)
+                .dataAlteracao(timestamp)
+                .gostei(42)
+                .build();
+        json = objectMapper.writeValueAsString(mensagem);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mensagem);
+    }
+
+    @Benchmark
+    public Mensagem desserializar() throws JsonProcessingException {
+        return objectMapper.readValue(json, Mensagem.class);
+    }
+
+    @Benchmark
+    public byte[] serializarManual() throws JsonProcessingException {
+        return objectMapperManual.writeValueAsBytes(mensagem);
+    }
+
+    @Benchmark
+    public Mensagem desserializarManual() throws JsonProcessingException {
+        return objectMapperManual.readValue(json, Mensagem.class);
+    }
+}
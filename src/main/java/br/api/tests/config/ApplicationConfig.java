@@ -1,10 +1,12 @@
 package br.api.tests.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.CharacterEncodingFilter;
 
 @Configuration
+@EnableConfigurationProperties(MensagemProperties.class)
 public class ApplicationConfig {
 
     @Bean
@@ -0,0 +1,46 @@
+package br.api.tests.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Uma região do cache de segundo nível; a concorrência entre transações fica com as estratégias do Hibernate.
+ */
+@RequiredArgsConstructor
+class ArmazenamentoCaffeine implements DomainDataStorageAccess {
+
+    private final Cache<Object, Object> cache;
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public void evictData() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+}
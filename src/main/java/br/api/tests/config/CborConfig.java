@@ -0,0 +1,64 @@
+package br.api.tests.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Aceita e produz {@code application/cbor} com a mesma configuração do Jackson usada para JSON, inclusive o
+ * {@link MensagemJson}. O conversor fica depois dos de JSON, que continuam sendo o padrão quando o cliente não
+ * pede CBOR. Um corpo CBOR que não pode ser decodificado responde 400, como um JSON inválido.
+ */
+@Configuration
+@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+@RequiredArgsConstructor
+public class CborConfig implements WebMvcConfigurer {
+
+    private final ApplicationContext applicationContext;
+    private final ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizers;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        var builder = Jackson2ObjectMapperBuilder.cbor().applicationContext(applicationContext);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        var cbor = new ConversorCbor(builder.build());
+
+        // o Spring MVC já registra um conversor CBOR padrão quando a biblioteca está presente; ele é substituído
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.set(i, cbor);
+                return;
+            }
+        }
+        converters.add(cbor);
+    }
+
+    /**
+     * CBOR é binário: um parâmetro {@code charset} no {@code Content-Type}, que alguns clientes acrescentam a todo
+     * corpo, faria o conversor ler o corpo por um {@code Reader}, que a fábrica CBOR não aceita.
+     */
+    private static class ConversorCbor extends MappingJackson2CborHttpMessageConverter {
+
+        ConversorCbor(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected Charset getCharset(MediaType contentType) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
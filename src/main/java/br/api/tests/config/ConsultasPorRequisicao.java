@@ -0,0 +1,58 @@
+package br.api.tests.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Conta as instruções SQL preparadas pelo Hibernate durante cada requisição e registra o total por rota, para
+ * evidenciar consultas N+1 sob carga. Instruções executadas fora da thread da requisição não entram na conta.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsultasPorRequisicao extends OncePerRequestFilter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONSULTAS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String inspect(String sql) {
+        var consultas = CONSULTAS.get();
+        if (consultas != null) {
+            consultas[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var consultas = new int[1];
+        CONSULTAS.set(consultas);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CONSULTAS.remove();
+            var rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("mensagens.requisicao.consultas")
+                    .description("Instruções SQL preparadas por requisição")
+                    .baseUnit("consultas")
+                    .tag("method", request.getMethod())
+                    .tag("uri", rota != null ? rota.toString() : "UNKNOWN")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(consultas[0]);
+        }
+    }
+}
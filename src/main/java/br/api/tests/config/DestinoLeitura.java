@@ -0,0 +1,39 @@
+package br.api.tests.config;
+
+/**
+ * Obriga as leituras da thread atual a irem ao primário, mesmo em transações somente leitura. Usado para ler as
+ * próprias escritas e para carregar o cache de mensagens, que não pode ser preenchido com dados atrasados da réplica.
+ * Sem réplica configurada não tem efeito.
+ */
+public final class DestinoLeitura {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private DestinoLeitura() {
+    }
+
+    public static boolean primarioObrigatorio() {
+        return Boolean.TRUE.equals(PRIMARIO.get());
+    }
+
+    /**
+     * Abre um escopo em que as leituras vão ao primário; o fechamento restaura o destino anterior.
+     */
+    public static Escopo primario() {
+        var anterior = PRIMARIO.get();
+        PRIMARIO.set(Boolean.TRUE);
+        return () -> {
+            if (anterior == null) {
+                PRIMARIO.remove();
+            } else {
+                PRIMARIO.set(anterior);
+            }
+        };
+    }
+
+    public interface Escopo extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
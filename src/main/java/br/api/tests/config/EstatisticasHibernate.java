@@ -0,0 +1,58 @@
+package br.api.tests.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica as estatísticas do Hibernate ({@code hibernate.generate_statistics}) como contadores.
+ */
+@Component
+@RequiredArgsConstructor
+public class EstatisticasHibernate implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        var estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        registrar(registry, estatisticas, "hibernate.statements.prepared",
+                "Instruções SQL preparadas", Statistics::getPrepareStatementCount);
+        registrar(registry, estatisticas, "hibernate.queries.executed",
+                "Consultas HQL e nativas executadas", Statistics::getQueryExecutionCount);
+        registrar(registry, estatisticas, "hibernate.entities.loads",
+                "Entidades carregadas", Statistics::getEntityLoadCount);
+        registrar(registry, estatisticas, "hibernate.entities.fetches",
+                "Entidades buscadas por carregamento tardio", Statistics::getEntityFetchCount);
+        registrar(registry, estatisticas, "hibernate.entities.inserts",
+                "Entidades inseridas", Statistics::getEntityInsertCount);
+        registrar(registry, estatisticas, "hibernate.entities.updates",
+                "Entidades atualizadas", Statistics::getEntityUpdateCount);
+        registrar(registry, estatisticas, "hibernate.entities.deletes",
+                "Entidades removidas", Statistics::getEntityDeleteCount);
+        registrar(registry, estatisticas, "hibernate.second-level-cache.hits",
+                "Entidades encontradas no cache de segundo nível", Statistics::getSecondLevelCacheHitCount);
+        registrar(registry, estatisticas, "hibernate.second-level-cache.misses",
+                "Entidades ausentes do cache de segundo nível", Statistics::getSecondLevelCacheMissCount);
+        registrar(registry, estatisticas, "hibernate.query-cache.hits",
+                "Consultas respondidas pelo cache de consultas", Statistics::getQueryCacheHitCount);
+        registrar(registry, estatisticas, "hibernate.query-cache.misses",
+                "Consultas ausentes do cache de consultas", Statistics::getQueryCacheMissCount);
+        registrar(registry, estatisticas, "hibernate.transactions",
+                "Transações concluídas", Statistics::getTransactionCount);
+    }
+
+    private static void registrar(MeterRegistry registry, Statistics estatisticas, String nome, String descricao,
+                                  ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder(nome, estatisticas, valor)
+                .description(descricao)
+                .register(registry);
+    }
+}
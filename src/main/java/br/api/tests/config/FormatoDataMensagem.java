@@ -0,0 +1,82 @@
+package br.api.tests.config;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formata e interpreta datas no padrão {@code yyyy-MM-dd HH:mm:ss.SSSSS} das mensagens dígito a dígito, sem passar
+ * pelo {@link DateTimeFormatter}; anos fora de quatro dígitos recorrem a ele.
+ */
+final class FormatoDataMensagem {
+
+    static final String PADRAO = "yyyy-MM-dd HH:mm:ss.SSSSS";
+    static final int COMPRIMENTO = PADRAO.length();
+
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern(PADRAO);
+
+    private FormatoDataMensagem() {
+    }
+
+    static int formatar(LocalDateTime data, char[] destino) {
+        var ano = data.getYear();
+        if (ano < 0 || ano > 9999) {
+            var texto = FORMATO.format(data);
+            texto.getChars(0, texto.length(), destino, 0);
+            return texto.length();
+        }
+        digitos(destino, 0, ano, 4);
+        destino[4] = '-';
+        digitos(destino, 5, data.getMonthValue(), 2);
+        destino[7] = '-';
+        digitos(destino, 8, data.getDayOfMonth(), 2);
+        destino[10] = ' ';
+        digitos(destino, 11, data.getHour(), 2);
+        destino[13] = ':';
+        digitos(destino, 14, data.getMinute(), 2);
+        destino[16] = ':';
+        digitos(destino, 17, data.getSecond(), 2);
+        destino[19] = '.';
+        // SSSSS trunca os nanossegundos em cinco casas, como o DateTimeFormatter
+        digitos(destino, 20, data.getNano() / 10_000, 5);
+        return COMPRIMENTO;
+    }
+
+    static LocalDateTime interpretar(String texto) {
+        if (texto.length() != COMPRIMENTO
+                || texto.charAt(4) != '-' || texto.charAt(7) != '-' || texto.charAt(10) != ' '
+                || texto.charAt(13) != ':' || texto.charAt(16) != ':' || texto.charAt(19) != '.') {
+            return LocalDateTime.parse(texto, FORMATO);
+        }
+        var ano = numero(texto, 0, 4);
+        var mes = numero(texto, 5, 2);
+        var dia = numero(texto, 8, 2);
+        var hora = numero(texto, 11, 2);
+        var minuto = numero(texto, 14, 2);
+        var segundo = numero(texto, 17, 2);
+        var fracao = numero(texto, 20, 5);
+        if ((ano | mes | dia | hora | minuto | segundo | fracao) < 0) {
+            return LocalDateTime.parse(texto, FORMATO);
+        }
+        return LocalDateTime.of(ano, mes, dia, hora, minuto, segundo, fracao * 10_000);
+    }
+
+    private static void digitos(char[] destino, int inicio, int valor, int quantidade) {
+        for (int i = inicio + quantidade - 1; i >= inicio; i--) {
+            destino[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+    }
+
+    // -1 quando há algo além de dígitos ASCII, para que o DateTimeFormatter produza a mensagem de erro
+    private static int numero(String texto, int inicio, int quantidade) {
+        var valor = 0;
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            var digito = texto.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return -1;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+}
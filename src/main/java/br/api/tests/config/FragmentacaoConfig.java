@@ -0,0 +1,110 @@
+package br.api.tests.config;
+
+import br.api.tests.repository.Fragmentador;
+import br.api.tests.repository.MensagemRepository;
+import br.api.tests.repository.MensagemRepositoryFragmentado;
+import br.api.tests.repository.RedistribuicaoFragmentos;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Distribui as mensagens entre os bancos de {@code mensagens.fragmentacao.fontes}. O esquema de cada fragmento é
+ * mantido fora da aplicação: o {@code ddl-auto} do Hibernate só alcança o fragmento zero.
+ * <p>
+ * Não combina com a réplica de leitura nem com a agregação de gosteis, que gravam direto no {@link DataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mensagens.fragmentacao", name = "habilitada", havingValue = "true")
+public class FragmentacaoConfig {
+
+    private final MensagemProperties.Fragmentacao propriedades;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public FragmentacaoConfig(MensagemProperties mensagemProperties) {
+        this.propriedades = mensagemProperties.getFragmentacao();
+        if (propriedades.getFontes().isEmpty()) {
+            throw new IllegalStateException("mensagens.fragmentacao.fontes precisa de ao menos um banco");
+        }
+        if (mensagemProperties.getReplica().isHabilitada() || mensagemProperties.getGostei().isAgregacao()) {
+            throw new IllegalStateException(
+                    "fragmentação não pode ser combinada com mensagens.replica nem com mensagens.gostei.agregacao");
+        }
+    }
+
+    @Bean
+    public Fragmentador fragmentador() {
+        return new Fragmentador(propriedades.getFontes().size(), propriedades.getFragmentosAnteriores());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(MeterRegistry meterRegistry) {
+        var fragmentos = new HashMap<Object, Object>();
+        for (int i = 0; i < propriedades.getFontes().size(); i++) {
+            var fonte = propriedades.getFontes().get(i);
+            var pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(fonte.getUrl())
+                    .username(fonte.getUsuario())
+                    .password(fonte.getSenha())
+                    .build();
+            pool.setPoolName("fragmento-" + i);
+            pool.setMaximumPoolSize(propriedades.getTamanhoPool());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(pool);
+            fragmentos.put(i, pool);
+        }
+
+        var roteamento = new FragmentacaoDataSource();
+        roteamento.setTargetDataSources(fragmentos);
+        roteamento.setDefaultTargetDataSource(pools.get(0));
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    /**
+     * Devolve a conexão ao fim de cada transação: com open-in-view a sessão dura a requisição inteira, e uma conexão
+     * retida nela levaria as transações seguintes ao fragmento da primeira.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberacaoConexaoPorTransacao() {
+        return propriedadesHibernate -> propriedadesHibernate.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    @Primary
+    public MensagemRepositoryFragmentado mensagemRepositoryFragmentado(
+            @Qualifier("mensagemRepository") MensagemRepository mensagemRepository, Fragmentador fragmentador) {
+        // cada tarefa ocupa no máximo uma conexão, então mais threads que conexões só formariam fila nos pools
+        return new MensagemRepositoryFragmentado(mensagemRepository, fragmentador,
+                propriedades.getFontes().size() * propriedades.getTamanhoPool());
+    }
+
+    @Bean
+    public RedistribuicaoFragmentos redistribuicaoFragmentos(DataSource dataSource, Fragmentador fragmentador) {
+        return new RedistribuicaoFragmentos(dataSource, fragmentador);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
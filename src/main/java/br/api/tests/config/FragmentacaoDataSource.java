@@ -0,0 +1,16 @@
+package br.api.tests.config;
+
+import br.api.tests.repository.FragmentoAtual;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Entrega conexões do fragmento definido em {@link FragmentoAtual}, ou do fragmento zero quando não há nenhum. Assim
+ * como o roteamento de réplica, precisa ficar atrás de um {@code LazyConnectionDataSourceProxy}.
+ */
+class FragmentacaoDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return FragmentoAtual.atual();
+    }
+}
@@ -0,0 +1,57 @@
+package br.api.tests.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Garante que um cliente leia as próprias escritas apesar do atraso da réplica: requisições de escrita marcam o
+ * cliente com um cookie que dura a janela configurada, e enquanto ele existir as leituras desse cliente vão ao
+ * primário. As próprias requisições de escrita também leem do primário.
+ * <p>
+ * Clientes que não guardam cookies (outros serviços, por exemplo) pedem a leitura do primário com o cabeçalho
+ * {@value #CABECALHO}, com qualquer valor. Fora desses dois casos a leitura pode vir da réplica e não refletir uma
+ * escrita recente.
+ */
+public class LeituraPropriaFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "leitura-primario";
+    static final String CABECALHO = "X-Leitura-Primario";
+
+    // o Max-Age do cookie é em segundos: truncada, uma janela abaixo de 1s viraria 0 e apagaria o cookie na hora
+    private final int segundosJanela;
+
+    public LeituraPropriaFilter(Duration janela) {
+        this.segundosJanela = Math.toIntExact(janela.toSeconds() + (janela.toNanosPart() > 0 ? 1 : 0));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var escrita = !HttpMethod.GET.matches(request.getMethod())
+                && !HttpMethod.HEAD.matches(request.getMethod())
+                && !HttpMethod.OPTIONS.matches(request.getMethod());
+        if (escrita) {
+            var cookie = new Cookie(COOKIE, "1");
+            cookie.setMaxAge(segundosJanela);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        } else if (WebUtils.getCookie(request, COOKIE) == null && request.getHeader(CABECALHO) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (var escopo = DestinoLeitura.primario()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package br.api.tests.config;
+
+import br.api.tests.model.Mensagem;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Serialização da {@link Mensagem} escrita à mão, sem a introspecção do {@code BeanSerializer} nem o
+ * {@code DateTimeFormatter} por data. Produz e aceita o mesmo JSON das anotações da entidade, que continuam
+ * valendo para um {@code ObjectMapper} sem este componente.
+ */
+@JsonComponent
+public class MensagemJson {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USUARIO = new SerializedString("usuario");
+    private static final SerializedString CONTEUDO = new SerializedString("conteudo");
+    private static final SerializedString DATA_CRIACAO = new SerializedString("dataCriacao");
+    private static final SerializedString DATA_ALTERACAO = new SerializedString("dataAlteracao");
+    private static final SerializedString GOSTEI = new SerializedString("gostei");
+
+    public static class Serializador extends StdSerializer<Mensagem> {
+
+        public Serializador() {
+            super(Mensagem.class);
+        }
+
+        @Override
+        public void serialize(Mensagem mensagem, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject(mensagem);
+            gerador.writeFieldName(ID);
+            if (mensagem.getId() == null) {
+                gerador.writeNull();
+            } else {
+                gerador.writeString(mensagem.getId().toString());
+            }
+            gerador.writeFieldName(USUARIO);
+            gerador.writeString(mensagem.getUsuario());
+            gerador.writeFieldName(CONTEUDO);
+            gerador.writeString(mensagem.getConteudo());
+
+            var buffer = new char[32];
+            escreverData(gerador, DATA_CRIACAO, mensagem.getDataCriacao(), buffer);
+            escreverData(gerador, DATA_ALTERACAO, mensagem.getDataAlteracao(), buffer);
+            gerador.writeFieldName(GOSTEI);
+            gerador.writeNumber(mensagem.getGostei());
+            gerador.writeEndObject();
+        }
+
+        private static void escreverData(JsonGenerator gerador, SerializedString campo, LocalDateTime data,
+                                         char[] buffer) throws IOException {
+            gerador.writeFieldName(campo);
+            if (data == null) {
+                gerador.writeNull();
+            } else {
+                gerador.writeString(buffer, 0, FormatoDataMensagem.formatar(data, buffer));
+            }
+        }
+    }
+
+    public static class Desserializador extends StdDeserializer<Mensagem> implements ResolvableDeserializer {
+
+        private JsonDeserializer<Object> uuid;
+
+        public Desserializador() {
+            super(Mensagem.class);
+        }
+
+        @Override
+        public void resolve(DeserializationContext contexto) throws JsonMappingException {
+            uuid = contexto.findRootValueDeserializer(contexto.constructType(UUID.class));
+        }
+
+        @Override
+        public Mensagem deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            String campo;
+            if (parser.isExpectedStartObjectToken()) {
+                campo = parser.nextFieldName();
+            } else if (parser.hasToken(JsonToken.FIELD_NAME)) {
+                campo = parser.currentName();
+            } else {
+                return (Mensagem) contexto.handleUnexpectedToken(Mensagem.class, parser);
+            }
+
+            var mensagem = Mensagem.builder();
+            for (; campo != null; campo = parser.nextFieldName()) {
+                parser.nextToken();
+                switch (campo) {
+                    case "id" -> mensagem.id(parser.hasToken(JsonToken.VALUE_NULL)
+                            ? null
+                            : (UUID) uuid.deserialize(parser, contexto));
+                    case "usuario" -> mensagem.usuario(lerTexto(parser, contexto));
+                    case "conteudo" -> mensagem.conteudo(lerTexto(parser, contexto));
+                    case "dataCriacao" -> mensagem.dataCriacao(lerData(parser, contexto));
+                    case "dataAlteracao" -> mensagem.dataAlteracao(lerData(parser, contexto));
+                    case "gostei" -> mensagem.gostei(_parseIntPrimitive(parser, contexto));
+                    // @JsonIgnore na entidade: ignorada mesmo com FAIL_ON_UNKNOWN_PROPERTIES
+                    case "versao" -> parser.skipChildren();
+                    default -> handleUnknownProperty(parser, contexto, Mensagem.class, campo);
+                }
+            }
+            return mensagem.build();
+        }
+
+        // o StringDeserializer aplica a mesma coerção de números e booleanos para texto do deserializador padrão
+        private static String lerTexto(JsonParser parser, DeserializationContext contexto) throws IOException {
+            return parser.hasToken(JsonToken.VALUE_NULL)
+                    ? null
+                    : StringDeserializer.instance.deserialize(parser, contexto);
+        }
+
+        private static LocalDateTime lerData(JsonParser parser, DeserializationContext contexto) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NULL)) {
+                return null;
+            }
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (LocalDateTime) contexto.handleUnexpectedToken(LocalDateTime.class, parser);
+            }
+            var texto = parser.getText();
+            try {
+                return FormatoDataMensagem.interpretar(texto);
+            } catch (DateTimeException e) {
+                throw contexto.weirdStringException(texto, LocalDateTime.class, e.getMessage());
+            }
+        }
+    }
+}
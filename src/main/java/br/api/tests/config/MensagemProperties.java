@@ -0,0 +1,287 @@
+package br.api.tests.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "mensagens")
+public class MensagemProperties {
+
+    private Listagem listagem = new Listagem();
+
+    private Gostei gostei = new Gostei();
+
+    private Cache cache = new Cache();
+
+    private Lote lote = new Lote();
+
+    private Exportacao exportacao = new Exportacao();
+
+    private Importacao importacao = new Importacao();
+
+    private Total total = new Total();
+
+    private BuscaPorIds buscaPorIds = new BuscaPorIds();
+
+    private Busca busca = new Busca();
+
+    private Ranking ranking = new Ranking();
+
+    private Json json = new Json();
+
+    private Replica replica = new Replica();
+
+    private Fragmentacao fragmentacao = new Fragmentacao();
+
+    private SegundoNivel segundoNivel = new SegundoNivel();
+
+    @Data
+    public static class Listagem {
+
+        /**
+         * Tamanho máximo de uma página das listagens por página, fatia e cursor.
+         */
+        private int tamanhoMaximo = 100;
+    }
+
+    @Data
+    public static class Gostei {
+
+        /**
+         * Acumula os incrementos em memória e os grava em lote, em vez de um UPDATE por gostei.
+         */
+        private boolean agregacao = false;
+
+        /**
+         * Intervalo máximo entre duas descargas dos incrementos pendentes.
+         */
+        private Duration intervalo = Duration.ofSeconds(1);
+
+        /**
+         * Quantidade de incrementos pendentes que antecipa a descarga.
+         */
+        private long limite = 10_000;
+
+        /**
+         * Quantidade de UPDATEs enviados em cada lote JDBC.
+         */
+        private int lote = 500;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Quantidade máxima de mensagens mantidas no cache de leitura.
+         */
+        private long tamanhoMaximo = 10_000;
+
+        /**
+         * Tempo de vida de uma mensagem no cache após ser carregada.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Lote {
+
+        /**
+         * Quantidade de mensagens gravadas em cada transação das operações em lote.
+         */
+        private int tamanho = 500;
+
+        /**
+         * Quantidade máxima de mensagens aceitas num único registro em lote.
+         */
+        private int maximoItens = 10_000;
+    }
+
+    @Data
+    public static class Exportacao {
+
+        /**
+         * Quantidade de linhas trazidas do banco a cada ida do cursor da exportação.
+         */
+        private int fetchSize = 1_000;
+    }
+
+    @Data
+    public static class Importacao {
+
+        /**
+         * Quantidade máxima de linhas rejeitadas detalhadas na resposta; as demais são apenas contadas.
+         */
+        private int maximoRejeicoesListadas = 1_000;
+
+        /**
+         * Quantidade máxima de caracteres numa linha; uma linha maior é rejeitada sem ser guardada inteira em memória.
+         */
+        private int tamanhoMaximoLinha = 64 * 1024;
+    }
+
+    @Data
+    public static class Total {
+
+        /**
+         * Intervalo entre as recontagens do total aproximado no banco, feitas fora das requisições.
+         */
+        private Duration recontagem = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class BuscaPorIds {
+
+        /**
+         * Quantidade máxima de ids aceitos numa única busca.
+         */
+        private int maximoIds = 1_000;
+
+        /**
+         * Quantidade de ids enviados em cada consulta {@code IN} ao banco.
+         */
+        private int tamanhoConsulta = 500;
+    }
+
+    @Data
+    public static class Busca {
+
+        /**
+         * Reconstrói o índice de busca a partir do banco antes de a aplicação começar a atender.
+         */
+        private boolean reconstruirNaInicializacao = true;
+
+        /**
+         * Quantidade de mensagens de cada lote indexado em paralelo durante a reconstrução.
+         */
+        private int lote = 1_000;
+
+        /**
+         * Quantidade máxima de resultados devolvidos por uma busca.
+         */
+        private int maximoResultados = 100;
+    }
+
+    @Data
+    public static class Ranking {
+
+        /**
+         * Quantidade de posições mantidas em memória; a folga em relação ao máximo absorve remoções sem ir ao banco.
+         */
+        private int capacidade = 1_000;
+
+        /**
+         * Quantidade máxima de posições devolvidas por consulta.
+         */
+        private int maximo = 100;
+    }
+
+    @Data
+    public static class Json {
+
+        /**
+         * Guarda o JSON já serializado das mensagens lidas por id, reaproveitado enquanto versão e gosteis não mudam.
+         */
+        private boolean cacheCorpos = false;
+
+        /**
+         * Total de bytes ocupados pelos corpos guardados.
+         */
+        private DataSize tamanhoMaximoCorpos = DataSize.ofMegabytes(32);
+    }
+
+    @Data
+    public static class Replica {
+
+        /**
+         * Envia as transações somente leitura a uma réplica; as demais continuam no {@code spring.datasource}.
+         */
+        private boolean habilitada = false;
+
+        private String url;
+
+        private String usuario;
+
+        private String senha;
+
+        /**
+         * Quantidade máxima de conexões com a réplica.
+         */
+        private int tamanhoPool = 10;
+
+        /**
+         * Tempo após uma escrita em que as leituras do mesmo cliente vão ao primário; deve cobrir o atraso da réplica.
+         * Arredondado para cima em segundos, a precisão do cookie que a marca.
+         */
+        private Duration janelaLeituraPropria = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Fragmentacao {
+
+        /**
+         * Distribui as mensagens entre os bancos de {@code fontes} pelo hash do id, no lugar do {@code spring.datasource}.
+         */
+        private boolean habilitada = false;
+
+        /**
+         * Bancos dos fragmentos; a posição na lista é o número do fragmento e não pode mudar.
+         */
+        private List<Fonte> fontes = new ArrayList<>();
+
+        /**
+         * Quantidade de fragmentos antes de uma redistribuição em andamento; enquanto definida, as mensagens ainda não
+         * movidas também são procuradas no fragmento antigo.
+         */
+        private Integer fragmentosAnteriores;
+
+        /**
+         * Quantidade máxima de conexões com cada fragmento.
+         */
+        private int tamanhoPool = 10;
+
+        @Data
+        public static class Fonte {
+
+            private String url;
+
+            private String usuario;
+
+            private String senha;
+        }
+    }
+
+    @Data
+    public static class SegundoNivel {
+
+        /**
+         * Liga o cache de segundo nível do Hibernate para {@code Mensagem} e o cache de consultas das primeiras
+         * páginas da listagem.
+         */
+        private boolean habilitado = false;
+
+        /**
+         * Quantidade máxima de mensagens mantidas na região de entidades.
+         */
+        private long capacidadeEntidades = 10_000;
+
+        /**
+         * Quantidade máxima de resultados mantidos em cada região de consultas.
+         */
+        private long capacidadeConsultas = 1_000;
+
+        /**
+         * Páginas iniciais da listagem servidas pelo cache de consultas; as demais sempre vão ao banco.
+         */
+        private int paginas = 3;
+
+        /**
+         * Tempo de vida de uma entrada, limite para alterações feitas no banco fora da aplicação.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,22 @@
+package br.api.tests.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer inspetorDeConsultas(ConsultasPorRequisicao consultasPorRequisicao) {
+        return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, consultasPorRequisicao);
+    }
+}
@@ -0,0 +1,67 @@
+package br.api.tests.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate guardadas em caches Caffeine locais, limitados em quantidade e
+ * tempo de vida. A região de timestamps não tem limite: perder a marca de uma tabela faria o Hibernate aceitar
+ * resultados de consultas anteriores à última escrita.
+ */
+public class RegioesCaffeine extends RegionFactoryTemplate {
+
+    private final MensagemProperties.SegundoNivel propriedades;
+    private final List<ArmazenamentoCaffeine> armazenamentos = new CopyOnWriteArrayList<>();
+
+    public RegioesCaffeine(MensagemProperties.SegundoNivel propriedades) {
+        this.propriedades = propriedades;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return registrar(Caffeine.newBuilder()
+                .maximumSize(propriedades.getCapacidadeEntidades())
+                .expireAfterWrite(propriedades.getTtl()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return registrar(Caffeine.newBuilder()
+                .maximumSize(propriedades.getCapacidadeConsultas())
+                .expireAfterWrite(propriedades.getTtl()));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return registrar(Caffeine.newBuilder());
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        armazenamentos.forEach(ArmazenamentoCaffeine::release);
+        armazenamentos.clear();
+    }
+
+    private ArmazenamentoCaffeine registrar(Caffeine<Object, Object> construtor) {
+        var armazenamento = new ArmazenamentoCaffeine(construtor.build());
+        armazenamentos.add(armazenamento);
+        return armazenamento;
+    }
+}
@@ -0,0 +1,83 @@
+package br.api.tests.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Separa leituras e escritas entre o banco primário ({@code spring.datasource}) e uma réplica de leitura
+ * ({@code mensagens.replica}). Os dois pools não são candidatos a injeção: a aplicação só enxerga o
+ * {@link DataSource} roteado.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mensagens.replica", name = "habilitada", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        var primario = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName("primario");
+        primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return primario;
+    }
+
+    @Bean(autowireCandidate = false)
+    public HikariDataSource dataSourceReplica(MensagemProperties mensagemProperties, MeterRegistry meterRegistry) {
+        var propriedades = mensagemProperties.getReplica();
+        var replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(propriedades.getUrl())
+                .username(propriedades.getUsuario())
+                .password(propriedades.getSenha())
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(propriedades.getTamanhoPool());
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(MensagemProperties mensagemProperties, MeterRegistry meterRegistry,
+                                 DataSourceProperties dataSourceProperties) {
+        var primario = dataSourcePrimario(dataSourceProperties, meterRegistry);
+        var roteamento = new RoteamentoDataSource();
+        roteamento.setTargetDataSources(Map.of(
+                RoteamentoDataSource.Destino.PRIMARIO, primario,
+                RoteamentoDataSource.Destino.REPLICA, dataSourceReplica(mensagemProperties, meterRegistry)));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    /**
+     * Devolve a conexão ao fim de cada transação: com open-in-view a sessão dura a requisição inteira, e uma conexão
+     * retida nela levaria as transações seguintes ao banco da primeira, réplica ou primário.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberacaoConexaoPorTransacao() {
+        return propriedadesHibernate -> propriedadesHibernate.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public LeituraPropriaFilter leituraPropriaFilter(MensagemProperties mensagemProperties) {
+        return new LeituraPropriaFilter(mensagemProperties.getReplica().getJanelaLeituraPropria());
+    }
+}
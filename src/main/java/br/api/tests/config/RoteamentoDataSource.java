@@ -0,0 +1,23 @@
+package br.api.tests.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia as transações somente leitura à réplica e todo o resto ao primário. Precisa ficar atrás de um
+ * {@code LazyConnectionDataSourceProxy}: a conexão só pode ser escolhida depois que o gerenciador de transações
+ * marcou a transação como somente leitura.
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIO, REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !DestinoLeitura.primarioObrigatorio()
+                ? Destino.REPLICA
+                : Destino.PRIMARIO;
+    }
+}
@@ -0,0 +1,40 @@
+package br.api.tests.config;
+
+import br.api.tests.repository.MensagemRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Liga o cache de segundo nível do Hibernate ({@code mensagens.segundo-nivel}): a região de {@code Mensagem} guarda
+ * as mensagens lidas por id e a região {@link MensagemRepository#REGIAO_PAGINAS} os resultados das primeiras páginas
+ * da listagem. Os UPDATEs e DELETEs em massa do repositório descartam a região de mensagens inteira.
+ * <p>
+ * Não combina com a réplica de leitura, cujo atraso seria gravado no cache, nem com a fragmentação, em que a mesma
+ * consulta devolve resultados diferentes em cada fragmento.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mensagens.segundo-nivel", name = "habilitado", havingValue = "true")
+public class SegundoNivelConfig {
+
+    private final MensagemProperties.SegundoNivel propriedades;
+
+    public SegundoNivelConfig(MensagemProperties mensagemProperties) {
+        this.propriedades = mensagemProperties.getSegundoNivel();
+        if (mensagemProperties.getReplica().isHabilitada() || mensagemProperties.getFragmentacao().isHabilitada()) {
+            throw new IllegalStateException(
+                    "segundo nível não pode ser combinado com mensagens.replica nem com mensagens.fragmentacao");
+        }
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel() {
+        return propriedadesHibernate -> {
+            propriedadesHibernate.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propriedadesHibernate.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propriedadesHibernate.put(AvailableSettings.CACHE_REGION_FACTORY, new RegioesCaffeine(propriedades));
+        };
+    }
+}
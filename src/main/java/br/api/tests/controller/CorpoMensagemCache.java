@@ -0,0 +1,64 @@
+package br.api.tests.controller;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.Mensagem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * JSON em UTF-8 das mensagens lidas por id, escrito direto na resposta sem serializar de novo. A chave inclui a
+ * versão e os gosteis, que compõem a ETag: uma mensagem alterada ou curtida gera uma entrada nova, e a antiga sai
+ * por tamanho.
+ */
+@Component
+public class CorpoMensagemCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Chave, byte[]> cache;
+
+    public CorpoMensagemCache(MensagemProperties mensagemProperties, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        var propriedades = mensagemProperties.getJson();
+        if (propriedades.isCacheCorpos()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(propriedades.getTamanhoMaximoCorpos().toBytes())
+                    .<Chave, byte[]>weigher((chave, corpo) -> corpo.length)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "mensagens.corpos");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Corpo serializado da mensagem, ou {@code null} quando o cache está desabilitado.
+     */
+    public byte[] obter(Mensagem mensagem) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(new Chave(mensagem.getId(), mensagem.getVersao(), mensagem.getGostei()),
+                chave -> serializar(mensagem));
+    }
+
+    private byte[] serializar(Mensagem mensagem) {
+        try {
+            return objectMapper.writeValueAsBytes(mensagem);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Chave(UUID id, Long versao, int gostei) {
+    }
+}
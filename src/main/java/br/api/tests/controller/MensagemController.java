@@ -1,18 +1,45 @@
 package br.api.tests.controller;
 
 import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.exception.MensagemVersaoConflitanteException;
+import br.api.tests.exception.MensagensInvalidasException;
+import br.api.tests.model.CursorPage;
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.OrdenacaoMensagens;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.model.ResultadoBuscaPorIds;
+import br.api.tests.model.ResultadoImportacao;
 import br.api.tests.service.MensagemService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @SuppressWarnings("checkstyle:Indentation")
@@ -22,23 +49,70 @@ import java.util.UUID;
 @Slf4j
 public class MensagemController {
 
+    private static final String IF_MATCH_NAO_CORRESPONDE = "A pré-condição If-Match não corresponde à mensagem.";
+    private static final String IF_MATCH_MALFORMADO = "A pré-condição If-Match contém uma ETag malformada.";
 
     private final MensagemService mensagemService;
+    private final ObjectMapper objectMapper;
+    private final CorpoMensagemCache corpoMensagemCache;
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Mensagem> registrarMensagem(@RequestBody Mensagem mensagem) {
-        var mensagemSalva = mensagemService.registrarMensagem(mensagem);
-        return new ResponseEntity<>(mensagemSalva, HttpStatus.CREATED);
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> registrarMensagem(@RequestBody Mensagem mensagem) {
+        try {
+            var mensagemSalva = mensagemService.registrarMensagem(mensagem);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(mensagemSalva)).body(mensagemSalva);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> registrarMensagens(@RequestBody List<Mensagem> mensagens) {
+        log.info("requisição para registrar mensagens em lote foi efetuada: Quantidade={}", mensagens.size());
+        try {
+            var ids = mensagemService.registrarMensagens(mensagens);
+            return new ResponseEntity<>(ids, HttpStatus.CREATED);
+
+        } catch (MensagensInvalidasException e) {
+            return ResponseEntity.badRequest().body(e.getInvalidas());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/import",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<ResultadoImportacao> importarMensagens(InputStream corpo) {
+        log.info("requisição para importar mensagens foi efetuada");
+        var resultado = mensagemService.importarMensagens(corpo);
+        log.info("importação de mensagens concluída: Aceitas={}, Rejeitadas={}",
+                resultado.aceitas(), resultado.rejeitadas());
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
     }
 
     @SuppressWarnings({"checkstyle:Indentation", "checkstyle:MissingJavadocMethod"})
-    @GetMapping(value = "/{id}")
-    public ResponseEntity<?> buscarMensagem(@PathVariable String id) {
+    @GetMapping(value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> buscarMensagem(@PathVariable String id, WebRequest webRequest) {
         try {
             var uuid = UUID.fromString(id);
             var mensagem = mensagemService.buscarMensagem(uuid);
-            return new ResponseEntity<>(mensagem, HttpStatus.OK);
+            var etag = etag(mensagem);
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            // o corpo guardado é JSON; quem pede CBOR passa pela serialização normal
+            var corpo = pedeCbor(webRequest) ? null : corpoMensagemCache.obter(mensagem);
+            if (corpo != null) {
+                return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(corpo);
+            }
+            return ResponseEntity.ok().eTag(etag).body(mensagem);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("O formato do ID fornecido é inválido.");
@@ -50,25 +124,189 @@ public class MensagemController {
 
     @GetMapping(
             value = "",
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<Mensagem>> listarMensagens(
+            params = "ids",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> buscarMensagens(@RequestParam List<String> ids) {
+        log.info("requisição para buscar mensagens por ids foi efetuada: Quantidade={}", ids.size());
+        List<UUID> uuids;
+        try {
+            uuids = ids.stream().map(String::trim).map(UUID::fromString).toList();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("O formato do ID fornecido é inválido.");
+        }
+
+        try {
+            ResultadoBuscaPorIds resultado = mensagemService.buscarMensagens(uuids);
+            return new ResponseEntity<>(resultado, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(
+            value = "",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> listarMensagens(
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String usuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate) {
+        log.info("requisição para listar mensagens foi efetuada: Página={}, Tamanho={}, Ordenação={}", page, size, sort);
+        try {
+            Pageable pageable = PageRequest.of(page, size, OrdenacaoMensagens.de(sort));
+            Page<MensagemResumo> mensagens = mensagemService.listasMensagens(
+                    new FiltroMensagens(usuario, de, ate), pageable);
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(
+            value = "/slice",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> listarMensagensEmFatia(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort) {
+        log.info("requisição para listar mensagens em fatia foi efetuada: Página={}, Tamanho={}, Ordenação={}",
+                page, size, sort);
+        try {
+            Slice<MensagemResumo> mensagens = mensagemService.listarMensagensEmFatia(
+                    PageRequest.of(page, size, OrdenacaoMensagens.de(sort)));
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(
+            value = "/total",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Long> contarMensagens() {
+        return new ResponseEntity<>(mensagemService.contarMensagens(), HttpStatus.OK);
+    }
+
+    @GetMapping(
+            value = "/cursor",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> listarMensagensPorCursor(
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        log.info("requisição para listar mensagens foi efetuada: Página={}, Tamanho={}", page, size);
-        Page<Mensagem> mensagens = mensagemService.listasMensagens(pageable);
-        return new ResponseEntity<>(mensagens, HttpStatus.OK);
+        log.info("requisição para listar mensagens por cursor foi efetuada: Tamanho={}", size);
+        try {
+            CursorPage<Mensagem> mensagens = mensagemService.listarMensagensPorCursor(after, size);
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
-    @PutMapping("/{id}")
+    @GetMapping(
+            value = "/top",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> listarMaisCurtidas(@RequestParam(defaultValue = "10") int n) {
+        try {
+            List<PosicaoRanking> ranking = mensagemService.listarMaisCurtidas(n);
+            return new ResponseEntity<>(ranking, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(
+            value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> buscarPorTexto(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("requisição para buscar mensagens por texto foi efetuada: Tamanho={}", size);
+        try {
+            List<Mensagem> mensagens = mensagemService.buscarPorTexto(q, size);
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(
+            value = "/export",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarMensagens() {
+        log.info("requisição para exportar mensagens foi efetuada");
+        var escritor = objectMapper.writerFor(Mensagem.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody corpo = saida -> {
+            try (var gerador = objectMapper.getFactory().createGenerator(saida)) {
+                gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gerador.setRootValueSeparator(null);
+                mensagemService.exportarMensagens(mensagem -> {
+                    try {
+                        escritor.writeValue(gerador, mensagem);
+                        gerador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    @PutMapping(value = "/{id}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public ResponseEntity<?> alterarMensagem(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Mensagem mensagemAtualizada) {
 
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("O formato do ID fornecido é inválido.");
+        }
+
+        try {
+            Mensagem mensagemAlterada;
+            if (ifMatch == null || ifMatch.isBlank()) {
+                mensagemAlterada = mensagemService.alterarMensagem(uuid, mensagemAtualizada);
+            } else if (ifMatch.trim().equals("*")) {
+                mensagemAlterada = alterarMensagemExistente(uuid, mensagemAtualizada);
+            } else {
+                mensagemAlterada = alterarMensagemNasEtags(uuid, mensagemAtualizada, etagsFortesDoIfMatch(ifMatch));
+            }
+            return ResponseEntity.ok().eTag(etag(mensagemAlterada)).body(mensagemAlterada);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (MensagemNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+
+        } catch (MensagemVersaoConflitanteException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/{id}/gostei",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> incrementarGostei(@PathVariable String id) {
         try {
             var uuid = UUID.fromString(id);
-            var mensagemAlterada = mensagemService.alterarMensagem(uuid, mensagemAtualizada);
-            return new ResponseEntity<>(mensagemAlterada, HttpStatus.OK);
+            var mensagem = mensagemService.incrementarGostei(uuid);
+            return ResponseEntity.ok().eTag(etag(mensagem)).body(mensagem);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("O formato do ID fornecido é inválido.");
@@ -93,4 +331,84 @@ public class MensagemController {
         }
     }
 
+    // mesma escolha do Spring entre os tipos do "produces": o Accept é ordenado por qualidade e especificidade, e o
+    // primeiro tipo aceito decide; JSON, o padrão, ganha quando o mesmo tipo aceita os dois (como em */*)
+    private static boolean pedeCbor(WebRequest webRequest) {
+        var cabecalhos = webRequest.getHeaderValues(HttpHeaders.ACCEPT);
+        if (cabecalhos == null) {
+            return false;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = new ArrayList<>(MediaType.parseMediaTypes(List.of(cabecalhos)));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(aceitos);
+        for (var aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                continue;
+            }
+            if (aceito.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (aceito.includes(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // o gostei é incrementado sem alterar a versão, por isso compõe a ETag junto com ela
+    private static String etag(Mensagem mensagem) {
+        return "\"" + mensagem.getVersao() + "-" + mensagem.getGostei() + "\"";
+    }
+
+    // "If-Match: *" exige apenas que a mensagem exista (RFC 9110, seção 13.1.1)
+    private Mensagem alterarMensagemExistente(UUID id, Mensagem mensagemAtualizada) {
+        try {
+            return mensagemService.alterarMensagem(id, mensagemAtualizada);
+        } catch (MensagemNotFoundException e) {
+            throw new MensagemVersaoConflitanteException(IF_MATCH_NAO_CORRESPONDE);
+        }
+    }
+
+    // If-Match usa a comparação forte (RFC 9110, seção 8.8.3.2): a ETag inteira, versão e gostei, precisa ser igual à
+    // atual, lida quase sempre do MensagemCache. A alteração continua condicionada à versão lida, para que uma escrita
+    // concorrente entre a comparação e o UPDATE também responda 412
+    private Mensagem alterarMensagemNasEtags(UUID id, Mensagem mensagemAtualizada, Set<String> etags) {
+        if (etags.isEmpty()) {
+            throw new MensagemVersaoConflitanteException(IF_MATCH_NAO_CORRESPONDE);
+        }
+        Mensagem atual;
+        try {
+            atual = mensagemService.buscarMensagem(id);
+        } catch (MensagemNotFoundException e) {
+            throw new MensagemVersaoConflitanteException(IF_MATCH_NAO_CORRESPONDE);
+        }
+        if (!etags.contains(etag(atual))) {
+            throw new MensagemVersaoConflitanteException(IF_MATCH_NAO_CORRESPONDE);
+        }
+        return mensagemService.alterarMensagem(id, mensagemAtualizada, atual.getVersao());
+    }
+
+    // ETags fracas nunca correspondem; uma ETag malformada torna a pré-condição impossível de avaliar e responde 412
+    private static Set<String> etagsFortesDoIfMatch(String ifMatch) {
+        var etags = new LinkedHashSet<String>();
+        for (var etag : ifMatch.split(",")) {
+            etag = etag.trim();
+            if (etag.isEmpty()) {
+                continue;
+            }
+            var fraca = etag.startsWith("W/");
+            var opaca = fraca ? etag.substring(2) : etag;
+            if (opaca.length() < 2 || opaca.charAt(0) != '"' || opaca.indexOf('"', 1) != opaca.length() - 1) {
+                throw new MensagemVersaoConflitanteException(IF_MATCH_MALFORMADO);
+            }
+            if (!fraca) {
+                etags.add(opaca);
+            }
+        }
+        return etags;
+    }
 }
@@ -0,0 +1,38 @@
+package br.api.tests.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * As mensagens de erro do {@link MensagemController} são texto. Quando o cliente pediu CBOR, o conversor de texto
+ * as escreveria com o tipo {@code application/cbor}, que nenhum decodificador CBOR consegue ler; elas saem como
+ * {@code text/plain}.
+ */
+@ControllerAdvice(assignableTypes = MensagemController.class)
+public class MensagemErroTextoAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final MediaType TEXTO = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return StringHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(selectedContentType)) {
+            response.getHeaders().setContentType(TEXTO);
+        }
+        return body;
+    }
+}
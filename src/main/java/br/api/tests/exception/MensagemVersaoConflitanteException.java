@@ -0,0 +1,8 @@
+package br.api.tests.exception;
+
+public class MensagemVersaoConflitanteException extends RuntimeException {
+
+    public MensagemVersaoConflitanteException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,17 @@
+package br.api.tests.exception;
+
+import br.api.tests.model.MensagemInvalida;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class MensagensInvalidasException extends RuntimeException {
+
+    private final List<MensagemInvalida> invalidas;
+
+    public MensagensInvalidasException(List<MensagemInvalida> invalidas) {
+        super("o lote contém mensagens inválidas");
+        this.invalidas = invalidas;
+    }
+}
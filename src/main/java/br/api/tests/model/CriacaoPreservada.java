@@ -0,0 +1,19 @@
+package br.api.tests.model;
+
+import org.hibernate.annotations.ValueGenerationType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Como {@code @CreationTimestamp}, mas mantém a data já atribuída: a importação grava a data de criação exportada.
+ */
+@ValueGenerationType(generatedBy = CriacaoPreservadaGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface CriacaoPreservada {
+}
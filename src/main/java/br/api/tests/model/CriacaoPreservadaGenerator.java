@@ -0,0 +1,28 @@
+package br.api.tests.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+
+/**
+ * Preenche a data de criação na inserção com o horário atual, a menos que ela já tenha sido atribuída.
+ */
+public class CriacaoPreservadaGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        // na precisão da coluna, como o @CreationTimestamp: a entidade em memória fica igual à gravada
+        return currentValue != null ? currentValue : LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,6 @@
+package br.api.tests.model;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> content, String next) {
+}
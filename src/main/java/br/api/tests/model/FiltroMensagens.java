@@ -0,0 +1,13 @@
+package br.api.tests.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais da listagem; o intervalo de {@code dataCriacao} é fechado em {@code de} e aberto em {@code ate}.
+ */
+public record FiltroMensagens(String usuario, LocalDateTime de, LocalDateTime ate) {
+
+    public boolean isVazio() {
+        return usuario == null && de == null && ate == null;
+    }
+}
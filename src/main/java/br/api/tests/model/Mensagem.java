@@ -2,14 +2,18 @@ package br.api.tests.model;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.jackson.Jacksonized;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -21,10 +25,23 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Jacksonized
+// índices decrescentes: o topo das listagens (mais recentes, mais curtidas) é lido na ordem do índice, e o
+// PostgreSQL também os percorre de trás para frente quando a ordenação é crescente
+@Table(indexes = {
+        @Index(name = "idx_mensagem_data_criacao_id", columnList = "dataCriacao desc, id desc"),
+        @Index(name = "idx_mensagem_usuario_data_criacao_id", columnList = "usuario, dataCriacao desc, id desc"),
+        @Index(name = "idx_mensagem_data_alteracao_id", columnList = "dataAlteracao desc, id desc"),
+        @Index(name = "idx_mensagem_gostei_id", columnList = "gostei desc, id desc")
+})
+// só entra no cache de segundo nível quando mensagens.segundo-nivel.habilitado liga o cache no Hibernate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Mensagem {
 
+    public static final int TAMANHO_MAXIMO_CONTEUDO = 4096;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     @Column(updatable = false, nullable = false)
     private UUID id;
 
@@ -32,9 +49,11 @@ public class Mensagem {
     private String usuario;
 
     @NotEmpty(message = "conteúdo não pode estar vazio")
+    @Size(max = TAMANHO_MAXIMO_CONTEUDO, message = "conteúdo não pode passar de {max} caracteres")
+    @Column(length = TAMANHO_MAXIMO_CONTEUDO)
     private String conteudo;
 
-    @CreationTimestamp
+    @CriacaoPreservada
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSSSS")
     private LocalDateTime dataCriacao;
 
@@ -45,6 +64,12 @@ public class Mensagem {
     @Builder.Default
     private int gostei = 0;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long versao;
+
 //    @PrePersist
 //    public void prePersist() {
 //        var timestamp = LocalDateTime.now();
@@ -0,0 +1,7 @@
+package br.api.tests.model;
+
+/**
+ * Item rejeitado de um registro em lote, identificado pela posição na lista enviada.
+ */
+public record MensagemInvalida(int indice, String motivo) {
+}
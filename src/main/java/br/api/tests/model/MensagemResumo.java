@@ -0,0 +1,23 @@
+package br.api.tests.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção somente leitura usada nas listagens: não é uma entidade gerenciada, então não ocupa
+ * o contexto de persistência nem gera snapshot para dirty checking.
+ */
+public record MensagemResumo(
+        UUID id,
+        String usuario,
+        String conteudo,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSSSS") LocalDateTime dataCriacao,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSSSS") LocalDateTime dataAlteracao,
+        int gostei) {
+
+    public MensagemResumo comGostei(int gostei) {
+        return new MensagemResumo(id, usuario, conteudo, dataCriacao, dataAlteracao, gostei);
+    }
+}
@@ -0,0 +1,50 @@
+package br.api.tests.model;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Campos aceitos para ordenar as listagens. Cada um tem um índice composto com o {@code id}, que desempata
+ * a ordem para que ela não mude entre páginas.
+ */
+public enum OrdenacaoMensagens {
+
+    DATA_CRIACAO("dataCriacao"),
+    DATA_ALTERACAO("dataAlteracao"),
+    GOSTEI("gostei");
+
+    public static final Sort PADRAO = DATA_CRIACAO.ordenar(Sort.Direction.DESC);
+
+    private final String campo;
+
+    OrdenacaoMensagens(String campo) {
+        this.campo = campo;
+    }
+
+    public Sort ordenar(Sort.Direction direcao) {
+        return Sort.by(direcao, campo, "id");
+    }
+
+    /**
+     * Interpreta {@code campo[,asc|desc]}, com direção decrescente quando omitida.
+     */
+    public static Sort de(String parametro) {
+        if (parametro == null || parametro.isBlank()) {
+            return PADRAO;
+        }
+        var partes = parametro.split(",", -1);
+        if (partes.length > 2) {
+            throw new IllegalArgumentException("ordenação inválida: " + parametro);
+        }
+        var ordenacao = Arrays.stream(values())
+                .filter(valor -> valor.campo.equals(partes[0].trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("ordenação inválida: " + parametro));
+        var direcao = partes.length == 1 ? Sort.Direction.DESC
+                : Sort.Direction.fromOptionalString(partes[1].trim().toUpperCase(Locale.ROOT))
+                .orElseThrow(() -> new IllegalArgumentException("ordenação inválida: " + parametro));
+        return ordenacao.ordenar(direcao);
+    }
+}
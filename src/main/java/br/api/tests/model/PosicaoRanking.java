@@ -0,0 +1,6 @@
+package br.api.tests.model;
+
+import java.util.UUID;
+
+public record PosicaoRanking(UUID id, int gostei) {
+}
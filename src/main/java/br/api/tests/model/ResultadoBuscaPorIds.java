@@ -0,0 +1,7 @@
+package br.api.tests.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ResultadoBuscaPorIds(List<Mensagem> mensagens, List<UUID> naoEncontrados) {
+}
@@ -0,0 +1,9 @@
+package br.api.tests.model;
+
+import java.util.List;
+
+public record ResultadoImportacao(long aceitas, long rejeitadas, List<Rejeicao> rejeicoes) {
+
+    public record Rejeicao(long linha, String motivo) {
+    }
+}
@@ -0,0 +1,53 @@
+package br.api.tests.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUIDv7 (RFC 9562): 48 bits de timestamp em milissegundos, 12 bits de sequência monotônica
+ * dentro do mesmo milissegundo e 62 bits aleatórios. Valores gerados em sequência são
+ * estritamente crescentes, então as inserções se concentram no fim do índice da chave primária.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+    private static final int SEQUENCIA_MAXIMA = 0xFFF;
+
+    private static long ultimoMilissegundo = -1;
+    private static int sequencia;
+
+    /**
+     * Mantém o id já atribuído: com fragmentação ele é gerado antes da persistência para escolher o banco.
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        var atribuido = session.getEntityPersister(null, object).getIdentifier(object, session);
+        return atribuido != null ? atribuido : proximo();
+    }
+
+    public static UUID proximo() {
+        long milissegundo;
+        int sequenciaAtual;
+        synchronized (UuidV7Generator.class) {
+            var agora = System.currentTimeMillis();
+            if (agora > ultimoMilissegundo) {
+                ultimoMilissegundo = agora;
+                // começa na metade inferior para deixar espaço para os próximos valores do mesmo milissegundo
+                sequencia = ALEATORIO.nextInt(SEQUENCIA_MAXIMA / 2);
+            } else if (++sequencia > SEQUENCIA_MAXIMA) {
+                // sequência esgotada (ou relógio voltou): avança o timestamp lógico para manter a ordem
+                ultimoMilissegundo++;
+                sequencia = 0;
+            }
+            milissegundo = ultimoMilissegundo;
+            sequenciaAtual = sequencia;
+        }
+
+        long maisSignificativos = (milissegundo << 16) | 0x7000L | sequenciaAtual;
+        long menosSignificativos = (ALEATORIO.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(maisSignificativos, menosSignificativos);
+    }
+}
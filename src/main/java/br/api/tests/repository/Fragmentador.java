@@ -0,0 +1,69 @@
+package br.api.tests.repository;
+
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Escolhe o fragmento de cada mensagem com o hash consistente de Lamping e Veach ("jump consistent hash") sobre o
+ * id. Ao passar de {@code n} para {@code n + 1} fragmentos só {@code 1 / (n + 1)} das mensagens mudam de lugar, e
+ * sempre para o fragmento novo; por isso fragmentos só podem ser acrescentados ao fim da lista.
+ */
+public final class Fragmentador {
+
+    private final int quantidade;
+    private final Integer anteriores;
+
+    public Fragmentador(int quantidade, Integer anteriores) {
+        if (quantidade < 1) {
+            throw new IllegalArgumentException("é preciso ao menos um fragmento");
+        }
+        if (anteriores != null && (anteriores < 1 || anteriores > quantidade)) {
+            throw new IllegalArgumentException("fragmentos anteriores devem estar entre 1 e " + quantidade);
+        }
+        this.quantidade = quantidade;
+        this.anteriores = anteriores;
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    public int quantidadeAnterior() {
+        return anteriores != null ? anteriores : quantidade;
+    }
+
+    public boolean redistribuindo() {
+        return anteriores != null && anteriores != quantidade;
+    }
+
+    public int fragmento(UUID id) {
+        return saltar(chave(id), quantidade);
+    }
+
+    /**
+     * Fragmento em que a mensagem estava antes da redistribuição, quando ela muda de lugar.
+     */
+    public OptionalInt fragmentoAnterior(UUID id) {
+        if (!redistribuindo()) {
+            return OptionalInt.empty();
+        }
+        var anterior = saltar(chave(id), anteriores);
+        return anterior == fragmento(id) ? OptionalInt.empty() : OptionalInt.of(anterior);
+    }
+
+    private static long chave(UUID id) {
+        // os bits menos significativos do UUIDv7 são aleatórios; os mais significativos, quase só o timestamp
+        return id.getLeastSignificantBits() ^ id.getMostSignificantBits();
+    }
+
+    static int saltar(long chave, int baldes) {
+        long balde = -1;
+        long proximo = 0;
+        while (proximo < baldes) {
+            balde = proximo;
+            chave = chave * 2862933555777941757L + 1;
+            proximo = (long) ((balde + 1) * ((double) (1L << 31) / (double) ((chave >>> 33) + 1)));
+        }
+        return (int) balde;
+    }
+}
@@ -0,0 +1,37 @@
+package br.api.tests.repository;
+
+/**
+ * Fragmento usado pelas conexões obtidas na thread atual. Sem fragmento definido, elas vão ao fragmento zero.
+ */
+public final class FragmentoAtual {
+
+    private static final ThreadLocal<Integer> FRAGMENTO = new ThreadLocal<>();
+
+    private FragmentoAtual() {
+    }
+
+    public static Integer atual() {
+        return FRAGMENTO.get();
+    }
+
+    /**
+     * Abre um escopo em que as conexões vão ao fragmento informado; o fechamento restaura o anterior.
+     */
+    public static Escopo em(int fragmento) {
+        var anterior = FRAGMENTO.get();
+        FRAGMENTO.set(fragmento);
+        return () -> {
+            if (anterior == null) {
+                FRAGMENTO.remove();
+            } else {
+                FRAGMENTO.set(anterior);
+            }
+        };
+    }
+
+    public interface Escopo extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,59 @@
+package br.api.tests.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Intercalação de k listas já ordenadas com um heap, usada para juntar as páginas devolvidas por cada fragmento.
+ */
+final class Intercalacao {
+
+    private Intercalacao() {
+    }
+
+    /**
+     * Junta as listas na ordem do comparador, descarta os {@code pular} primeiros elementos e devolve no máximo
+     * {@code limite}. Elementos com a mesma chave aparecem uma única vez: durante uma redistribuição uma mensagem pode
+     * estar em dois fragmentos.
+     */
+    static <T> List<T> intercalar(List<? extends List<T>> listas, Comparator<? super T> comparador,
+                                  Function<? super T, ?> chave, long pular, int limite) {
+        var heap = new PriorityQueue<Cabeca<T>>(Math.max(1, listas.size()),
+                (a, b) -> comparador.compare(a.valor(), b.valor()));
+        for (var lista : listas) {
+            if (!lista.isEmpty()) {
+                heap.add(new Cabeca<>(lista, 0));
+            }
+        }
+
+        var vistas = new HashSet<Object>();
+        var resultado = new ArrayList<T>(Math.min(limite, 256));
+        while (!heap.isEmpty() && resultado.size() < limite) {
+            var cabeca = heap.poll();
+            var valor = cabeca.valor();
+            if (cabeca.posicao() + 1 < cabeca.lista().size()) {
+                heap.add(new Cabeca<>(cabeca.lista(), cabeca.posicao() + 1));
+            }
+            if (!vistas.add(chave.apply(valor))) {
+                continue;
+            }
+            if (pular > 0) {
+                pular--;
+            } else {
+                resultado.add(valor);
+            }
+        }
+        return resultado;
+    }
+
+    private record Cabeca<T>(List<T> lista, int posicao) {
+
+        T valor() {
+            return lista.get(posicao);
+        }
+    }
+}
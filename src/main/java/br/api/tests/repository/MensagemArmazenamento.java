@@ -0,0 +1,44 @@
+package br.api.tests.repository;
+
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Operações sobre mensagens usadas pelos serviços. São só as que também funcionam com a fragmentação: com ela ligada,
+ * {@link MensagemRepositoryFragmentado} as distribui entre os fragmentos; sem ela, o próprio {@link MensagemRepository}
+ * as atende. O que não estiver aqui não está disponível aos serviços.
+ */
+public interface MensagemArmazenamento extends MensagemRepositoryCustom {
+
+    <S extends Mensagem> S save(S mensagem);
+
+    Optional<Mensagem> findById(UUID id);
+
+    boolean existsById(UUID id);
+
+    List<Mensagem> findAllById(Iterable<UUID> ids);
+
+    long count();
+
+    Page<MensagemResumo> listarResumos(Pageable pageable);
+
+    Page<MensagemResumo> listarResumosEmCache(Pageable pageable);
+
+    Slice<MensagemResumo> buscarFatia(Pageable pageable);
+
+    List<Mensagem> buscarPrimeiraJanela(Pageable pageable);
+
+    List<Mensagem> buscarJanelaApos(LocalDateTime dataCriacao, UUID id, Pageable pageable);
+
+    int incrementarGostei(UUID id);
+
+    int removerPorId(UUID id);
+}
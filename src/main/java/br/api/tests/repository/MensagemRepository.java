@@ -1,9 +1,89 @@
 package br.api.tests.repository;
 
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface MensagemRepository extends JpaRepository<Mensagem, UUID> {
+public interface MensagemRepository extends JpaRepository<Mensagem, UUID>, MensagemArmazenamento {
+
+    /**
+     * Região do cache de consultas com as páginas de {@link #listarResumosEmCache(Pageable)}.
+     */
+    String REGIAO_PAGINAS = "mensagem-paginas";
+
+    String CONSULTA_RESUMOS = """
+            select new br.api.tests.model.MensagemResumo(
+                m.id, m.usuario, m.conteudo, m.dataCriacao, m.dataAlteracao, m.gostei)
+            from Mensagem m""";
+
+    String CONTAGEM_RESUMOS = "select count(m) from Mensagem m";
+
+    // declarados de novo porque vêm tanto do CrudRepository quanto do MensagemArmazenamento
+    @Override
+    <S extends Mensagem> S save(S mensagem);
+
+    @Override
+    Optional<Mensagem> findById(UUID id);
+
+    @Override
+    boolean existsById(UUID id);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = CONSULTA_RESUMOS, countQuery = CONTAGEM_RESUMOS)
+    Page<MensagemResumo> listarResumos(Pageable pageable);
+
+    /**
+     * Mesma consulta de {@link #listarResumos(Pageable)}, com a página e a contagem guardadas no cache de consultas
+     * até a próxima escrita em {@code Mensagem}. Sem o cache de segundo nível ligado, os hints são ignorados.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_PAGINAS)
+    })
+    @Query(value = CONSULTA_RESUMOS, countQuery = CONTAGEM_RESUMOS)
+    Page<MensagemResumo> listarResumosEmCache(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(CONSULTA_RESUMOS)
+    Slice<MensagemResumo> buscarFatia(Pageable pageable);
+
+    @Query("select m from Mensagem m order by m.dataCriacao desc, m.id desc")
+    List<Mensagem> buscarPrimeiraJanela(Pageable pageable);
+
+    @Query("""
+            select m from Mensagem m
+            where (m.dataCriacao, m.id) < (:dataCriacao, :id)
+            order by m.dataCriacao desc, m.id desc""")
+    List<Mensagem> buscarJanelaApos(@Param("dataCriacao") LocalDateTime dataCriacao,
+                                    @Param("id") UUID id,
+                                    Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Mensagem m set m.gostei = m.gostei + 1 where m.id = :id")
+    int incrementarGostei(@Param("id") UUID id);
 
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Mensagem m where m.id = :id")
+    int removerPorId(@Param("id") UUID id);
 }
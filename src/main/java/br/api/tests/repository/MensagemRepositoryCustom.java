@@ -0,0 +1,43 @@
+package br.api.tests.repository;
+
+import br.api.tests.model.FiltroMensagens;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface MensagemRepositoryCustom {
+
+    /**
+     * Persiste as mensagens em uma única transação, usando o batching JDBC do Hibernate,
+     * e limpa o contexto de persistência ao final para que ele não cresça entre lotes.
+     */
+    List<Mensagem> persistirEmLote(List<Mensagem> mensagens);
+
+    /**
+     * Percorre todas as mensagens com um cursor do lado do servidor, desanexando cada entidade
+     * depois de entregue para que o consumo de memória não dependa do tamanho da tabela.
+     */
+    void percorrerTodas(int fetchSize, Consumer<Mensagem> consumidor);
+
+    /**
+     * Lista a projeção com apenas os predicados dos filtros informados, para que o banco possa usar os
+     * índices de {@code (usuario, dataCriacao)} e {@code (dataCriacao, id)}. Sem ordenação no
+     * {@code pageable}, as mais recentes vêm primeiro.
+     */
+    Page<MensagemResumo> listarResumos(FiltroMensagens filtro, Pageable pageable);
+
+    /**
+     * Altera usuário, conteúdo e data de alteração e incrementa a versão em uma única instrução, que devolve a
+     * mensagem como ficou gravada. Com {@code versao}, só altera se a versão gravada for essa. Vazio quando nenhuma
+     * linha foi alterada.
+     */
+    Optional<Mensagem> alterarConteudo(UUID id, String usuario, String conteudo, LocalDateTime dataAlteracao,
+                                       Long versao);
+}
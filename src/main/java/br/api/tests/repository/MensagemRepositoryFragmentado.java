@@ -0,0 +1,374 @@
+package br.api.tests.repository;
+
+import br.api.tests.model.FiltroMensagens;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.OrdenacaoMensagens;
+import br.api.tests.model.UuidV7Generator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fragmentação sobre o {@link MensagemRepository}: operações por id vão ao fragmento do id, operações em lote são
+ * divididas por fragmento e executadas em paralelo, e as listagens consultam todos os fragmentos e intercalam os
+ * resultados pela ordenação pedida. Só oferece o que está em {@link MensagemArmazenamento}.
+ * <p>
+ * Cada fragmento consultado em paralelo roda em uma thread do executor, com transação e contexto de persistência
+ * próprios; operações de um único fragmento rodam na thread de quem chamou. Enquanto o contexto é inicializado tudo
+ * roda em sequência na thread de quem chamou, porque as threads do executor ficariam esperando a fábrica de beans que
+ * essa mesma inicialização mantém travada. Durante uma redistribuição, o que não é encontrado no fragmento atual de um
+ * id é procurado no fragmento anterior, e nas listagens a cópia do fragmento atual prevalece sobre a do anterior.
+ * <p>
+ * Uma página com deslocamento {@code d} pede {@code d + tamanho} linhas a cada fragmento: páginas profundas custam
+ * {@code n} vezes o deslocamento. Para percorrer a tabela, use as janelas por cursor.
+ */
+public class MensagemRepositoryFragmentado implements MensagemArmazenamento, SmartInitializingSingleton,
+        DisposableBean {
+
+    // o banco compara UUIDs byte a byte, sem sinal; UUID.compareTo compara os longs com sinal
+    private static final Comparator<UUID> UUID_SEM_SINAL = (a, b) -> {
+        var comparacao = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return comparacao != 0 ? comparacao
+                : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    // mesma ordem de buscarPrimeiraJanela e buscarJanelaApos
+    private static final Comparator<Mensagem> ORDEM_JANELA = Comparator
+            .comparing(Mensagem::getDataCriacao, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Mensagem::getId, UUID_SEM_SINAL)
+            .reversed();
+
+    private final MensagemArmazenamento repositorio;
+    private final Fragmentador fragmentador;
+    private final ExecutorService executor;
+
+    private volatile boolean paralelo;
+
+    public MensagemRepositoryFragmentado(MensagemArmazenamento repositorio, Fragmentador fragmentador, int threads) {
+        this.repositorio = repositorio;
+        this.fragmentador = fragmentador;
+        var numero = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "fragmentos-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        paralelo = true;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public <S extends Mensagem> S save(S mensagem) {
+        if (mensagem.getId() == null) {
+            mensagem.setId(UuidV7Generator.proximo());
+        }
+        return noFragmento(fragmentador.fragmento(mensagem.getId()), () -> repositorio.save(mensagem));
+    }
+
+    @Override
+    public List<Mensagem> persistirEmLote(List<Mensagem> mensagens) {
+        var porFragmento = new LinkedHashMap<Integer, List<Mensagem>>();
+        for (var mensagem : mensagens) {
+            if (mensagem.getId() == null) {
+                mensagem.setId(UuidV7Generator.proximo());
+            }
+            porFragmento.computeIfAbsent(fragmentador.fragmento(mensagem.getId()), fragmento -> new ArrayList<>())
+                    .add(mensagem);
+        }
+        emCada(porFragmento, (fragmento, lote) -> noFragmento(fragmento, () -> repositorio.persistirEmLote(lote)));
+        return mensagens;
+    }
+
+    @Override
+    public Optional<Mensagem> findById(UUID id) {
+        return porId(id, () -> repositorio.findById(id), Optional::isPresent);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return porId(id, () -> repositorio.existsById(id), existe -> existe);
+    }
+
+    @Override
+    public int incrementarGostei(UUID id) {
+        return porId(id, () -> repositorio.incrementarGostei(id), alteradas -> alteradas > 0);
+    }
+
+    @Override
+    public Optional<Mensagem> alterarConteudo(UUID id, String usuario, String conteudo, LocalDateTime dataAlteracao,
+                                              Long versao) {
+        return porId(id, () -> repositorio.alterarConteudo(id, usuario, conteudo, dataAlteracao, versao),
+                Optional::isPresent);
+    }
+
+    private <R> R porId(UUID id, Supplier<R> operacao, Predicate<R> encontrado) {
+        var resultado = noFragmento(fragmentador.fragmento(id), operacao);
+        var anterior = fragmentador.fragmentoAnterior(id);
+        if (anterior.isEmpty() || encontrado.test(resultado)) {
+            return resultado;
+        }
+        return noFragmento(anterior.getAsInt(), operacao);
+    }
+
+    @Override
+    public int removerPorId(UUID id) {
+        var removidas = noFragmento(fragmentador.fragmento(id), () -> repositorio.removerPorId(id));
+        var anterior = fragmentador.fragmentoAnterior(id);
+        if (anterior.isPresent()) {
+            removidas += noFragmento(anterior.getAsInt(), () -> repositorio.removerPorId(id));
+        }
+        return removidas;
+    }
+
+    @Override
+    public List<Mensagem> findAllById(Iterable<UUID> ids) {
+        var porFragmento = new LinkedHashMap<Integer, List<UUID>>();
+        var anteriores = new LinkedHashMap<Integer, List<UUID>>();
+        for (var id : ids) {
+            porFragmento.computeIfAbsent(fragmentador.fragmento(id), fragmento -> new ArrayList<>()).add(id);
+            fragmentador.fragmentoAnterior(id).ifPresent(anterior ->
+                    anteriores.computeIfAbsent(anterior, fragmento -> new ArrayList<>()).add(id));
+        }
+
+        var encontradas = new ArrayList<Mensagem>();
+        emCada(porFragmento, (fragmento, lote) -> noFragmento(fragmento, () -> repositorio.findAllById(lote)))
+                .forEach(encontradas::addAll);
+        if (!anteriores.isEmpty()) {
+            var jaEncontradas = encontradas.stream().map(Mensagem::getId).collect(Collectors.toSet());
+            anteriores.values().forEach(lote -> lote.removeIf(jaEncontradas::contains));
+            anteriores.values().removeIf(List::isEmpty);
+            emCada(anteriores, (fragmento, lote) -> noFragmento(fragmento, () -> repositorio.findAllById(lote)))
+                    .forEach(encontradas::addAll);
+        }
+        return encontradas;
+    }
+
+    @Override
+    public long count() {
+        return emTodos(fragmento -> noFragmento(fragmento, repositorio::count)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public Page<MensagemResumo> listarResumos(Pageable pageable) {
+        return listarResumos(pageable, repositorio::listarResumos);
+    }
+
+    /**
+     * O cache de consultas não vale entre fragmentos: cada um guardaria só a sua parte da página.
+     */
+    @Override
+    public Page<MensagemResumo> listarResumosEmCache(Pageable pageable) {
+        return listarResumos(pageable);
+    }
+
+    @Override
+    public Page<MensagemResumo> listarResumos(FiltroMensagens filtro, Pageable pageable) {
+        return listarResumos(pageable, porFragmento -> repositorio.listarResumos(filtro, porFragmento));
+    }
+
+    private Page<MensagemResumo> listarResumos(Pageable pageable, Function<Pageable, Page<MensagemResumo>> consulta) {
+        var ordenacao = pageable.getSort().isSorted() ? pageable.getSort() : OrdenacaoMensagens.PADRAO;
+        var porFragmento = pageable.isPaged() ? PageRequest.of(0, limitePorFragmento(pageable), ordenacao) : pageable;
+        var paginas = emTodos(fragmento -> noFragmento(fragmento, () -> consulta.apply(porFragmento)));
+
+        var total = paginas.stream().mapToLong(Page::getTotalElements).sum();
+        var conteudos = preferirFragmentoAtual(paginas.stream().map(Page::getContent).toList(), MensagemResumo::id);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(Intercalacao.intercalar(conteudos, comparador(ordenacao), MensagemResumo::id,
+                    0, Integer.MAX_VALUE));
+        }
+        return new PageImpl<>(Intercalacao.intercalar(conteudos, comparador(ordenacao), MensagemResumo::id,
+                pageable.getOffset(), pageable.getPageSize()), pageable, total);
+    }
+
+    @Override
+    public Slice<MensagemResumo> buscarFatia(Pageable pageable) {
+        var ordenacao = pageable.getSort().isSorted() ? pageable.getSort() : OrdenacaoMensagens.PADRAO;
+        var porFragmento = PageRequest.of(0, limitePorFragmento(pageable), ordenacao);
+        var fatias = emTodos(fragmento -> noFragmento(fragmento, () -> repositorio.buscarFatia(porFragmento)));
+
+        // um elemento além da página indica que existe a próxima
+        var conteudo = Intercalacao.intercalar(
+                preferirFragmentoAtual(fatias.stream().map(Slice::getContent).toList(), MensagemResumo::id),
+                comparador(ordenacao), MensagemResumo::id, pageable.getOffset(), pageable.getPageSize() + 1);
+        var temProxima = conteudo.size() > pageable.getPageSize() || fatias.stream().anyMatch(Slice::hasNext);
+        return new SliceImpl<>(conteudo.subList(0, Math.min(conteudo.size(), pageable.getPageSize())),
+                pageable, temProxima);
+    }
+
+    @Override
+    public List<Mensagem> buscarPrimeiraJanela(Pageable pageable) {
+        return buscarJanela(pageable, () -> repositorio.buscarPrimeiraJanela(pageable));
+    }
+
+    @Override
+    public List<Mensagem> buscarJanelaApos(LocalDateTime dataCriacao, UUID id, Pageable pageable) {
+        return buscarJanela(pageable, () -> repositorio.buscarJanelaApos(dataCriacao, id, pageable));
+    }
+
+    private List<Mensagem> buscarJanela(Pageable janela, Supplier<List<Mensagem>> consulta) {
+        var listas = emTodos(fragmento -> noFragmento(fragmento, consulta));
+        return Intercalacao.intercalar(preferirFragmentoAtual(listas, Mensagem::getId), ORDEM_JANELA,
+                Mensagem::getId, 0, janela.getPageSize());
+    }
+
+    @Override
+    public void percorrerTodas(int fetchSize, Consumer<Mensagem> consumidor) {
+        // um fragmento por vez: o consumidor não precisa ser seguro para uso concorrente
+        for (int fragmento = 0; fragmento < fragmentador.quantidade(); fragmento++) {
+            var atual = fragmento;
+            Runnable percorrer = () -> noFragmento(atual, () -> {
+                repositorio.percorrerTodas(fetchSize, consumidor);
+                return null;
+            });
+            if (paralelo) {
+                aguardar(executor.submit(percorrer));
+            } else {
+                percorrer.run();
+            }
+        }
+    }
+
+    /**
+     * Durante uma redistribuição a mesma mensagem pode vir de dois fragmentos, e a cópia do anterior pode estar
+     * desatualizada. Retira das listas a cópia que está fora do fragmento atual do id quando o fragmento atual também
+     * a devolveu, antes que a intercalação fique com a que vier primeiro na ordenação.
+     */
+    private <T> List<List<T>> preferirFragmentoAtual(List<List<T>> porFragmento, Function<T, UUID> id) {
+        if (!fragmentador.redistribuindo()) {
+            return porFragmento;
+        }
+        var presentes = porFragmento.stream()
+                .map(lista -> lista.stream().map(id).collect(Collectors.toSet()))
+                .toList();
+        return IntStream.range(0, porFragmento.size())
+                .mapToObj(fragmento -> porFragmento.get(fragmento).stream()
+                        .filter(valor -> {
+                            var atual = fragmentador.fragmento(id.apply(valor));
+                            return atual == fragmento || !presentes.get(atual).contains(id.apply(valor));
+                        })
+                        .toList())
+                .toList();
+    }
+
+    private static int limitePorFragmento(Pageable pageable) {
+        return Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+    }
+
+    private static Comparator<MensagemResumo> comparador(Sort ordenacao) {
+        Comparator<MensagemResumo> comparador = (a, b) -> 0;
+        for (var ordem : ordenacao) {
+            Comparator<MensagemResumo> campo = switch (ordem.getProperty()) {
+                case "id" -> Comparator.comparing(MensagemResumo::id, UUID_SEM_SINAL);
+                case "usuario" -> Comparator.comparing(MensagemResumo::usuario, nulosNoFim());
+                case "conteudo" -> Comparator.comparing(MensagemResumo::conteudo, nulosNoFim());
+                case "dataCriacao" -> Comparator.comparing(MensagemResumo::dataCriacao, nulosNoFim());
+                case "dataAlteracao" -> Comparator.comparing(MensagemResumo::dataAlteracao, nulosNoFim());
+                case "gostei" -> Comparator.comparingInt(MensagemResumo::gostei);
+                default -> throw new IllegalArgumentException("ordenação inválida: " + ordem.getProperty());
+            };
+            comparador = comparador.thenComparing(ordem.isAscending() ? campo : campo.reversed());
+        }
+        return comparador;
+    }
+
+    // como no PostgreSQL, nulos são maiores que qualquer valor
+    private static <T extends Comparable<? super T>> Comparator<T> nulosNoFim() {
+        return Comparator.nullsLast(Comparator.naturalOrder());
+    }
+
+    private <R> R noFragmento(int fragmento, Supplier<R> operacao) {
+        try (var escopo = FragmentoAtual.em(fragmento)) {
+            return operacao.get();
+        }
+    }
+
+    private <R> List<R> emTodos(IntFunction<R> operacao) {
+        if (!paralelo || fragmentador.quantidade() == 1) {
+            return IntStream.range(0, fragmentador.quantidade()).mapToObj(operacao).toList();
+        }
+        return aguardarTodas(IntStream.range(0, fragmentador.quantidade())
+                .mapToObj(fragmento -> executor.submit(() -> operacao.apply(fragmento)))
+                .toList());
+    }
+
+    private <T, R> List<R> emCada(Map<Integer, T> porFragmento, BiFunction<Integer, T, R> operacao) {
+        if (!paralelo || porFragmento.size() == 1) {
+            return porFragmento.entrySet().stream()
+                    .map(entrada -> operacao.apply(entrada.getKey(), entrada.getValue()))
+                    .toList();
+        }
+        return aguardarTodas(porFragmento.entrySet().stream()
+                .map(entrada -> executor.submit(() -> operacao.apply(entrada.getKey(), entrada.getValue())))
+                .toList());
+    }
+
+    private static <R> List<R> aguardarTodas(Collection<Future<R>> tarefas) {
+        var resultados = new ArrayList<R>(tarefas.size());
+        try {
+            for (var tarefa : tarefas) {
+                resultados.add(aguardar(tarefa));
+            }
+        } finally {
+            tarefas.forEach(tarefa -> tarefa.cancel(true));
+        }
+        return resultados;
+    }
+
+    private static <R> R aguardar(Future<R> tarefa) {
+        try {
+            return tarefa.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("consulta aos fragmentos interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
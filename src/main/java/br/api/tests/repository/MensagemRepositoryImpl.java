@@ -0,0 +1,173 @@
+package br.api.tests.repository;
+
+import br.api.tests.model.FiltroMensagens;
+import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class MensagemRepositoryImpl implements MensagemRepositoryCustom {
+
+    private static final String COLUNAS_ALTERADAS =
+            "id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<Mensagem> persistirEmLote(List<Mensagem> mensagens) {
+        mensagens.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        return mensagens;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void percorrerTodas(int fetchSize, Consumer<Mensagem> consumidor) {
+        var consulta = entityManager.createQuery("select m from Mensagem m", Mensagem.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                // a varredura completa não deve expulsar as mensagens quentes do cache de segundo nível
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.GET);
+        try (var mensagens = consulta.getResultStream()) {
+            mensagens.forEach(mensagem -> {
+                entityManager.detach(mensagem);
+                consumidor.accept(mensagem);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MensagemResumo> listarResumos(FiltroMensagens filtro, Pageable pageable) {
+        var criteria = entityManager.getCriteriaBuilder();
+
+        var consulta = criteria.createQuery(MensagemResumo.class);
+        var mensagem = consulta.from(Mensagem.class);
+        consulta.select(criteria.construct(MensagemResumo.class,
+                        mensagem.get("id"), mensagem.get("usuario"), mensagem.get("conteudo"),
+                        mensagem.get("dataCriacao"), mensagem.get("dataAlteracao"), mensagem.get("gostei")))
+                .where(predicados(filtro, criteria, mensagem));
+        if (pageable.getSort().isSorted()) {
+            consulta.orderBy(QueryUtils.toOrders(pageable.getSort(), mensagem, criteria));
+        } else {
+            consulta.orderBy(criteria.desc(mensagem.get("dataCriacao")), criteria.desc(mensagem.get("id")));
+        }
+
+        var pagina = entityManager.createQuery(consulta)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (pageable.isPaged()) {
+            pagina.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        var conteudo = pagina.getResultList();
+
+        return PageableExecutionUtils.getPage(conteudo, pageable, () -> {
+            var contagem = criteria.createQuery(Long.class);
+            var contada = contagem.from(Mensagem.class);
+            contagem.select(criteria.count(contada))
+                    .where(predicados(filtro, criteria, contada));
+            return entityManager.createQuery(contagem).getSingleResult();
+        });
+    }
+
+    // o PostgreSQL devolve as colunas alteradas com RETURNING; o H2, que não o conhece, com a tabela final do UPDATE
+    @Override
+    @Transactional
+    public Optional<Mensagem> alterarConteudo(UUID id, String usuario, String conteudo, LocalDateTime dataAlteracao,
+                                              Long versao) {
+        var update = "update mensagem set usuario = :usuario, conteudo = :conteudo, data_alteracao = :dataAlteracao,"
+                + " versao = versao + 1 where id = :id" + (versao == null ? "" : " and versao = :versao");
+        var sql = dialeto() instanceof H2Dialect
+                ? "select " + COLUNAS_ALTERADAS + " from final table (" + update + ")"
+                : update + " returning " + COLUNAS_ALTERADAS;
+
+        var consulta = entityManager.unwrap(Session.class).createNativeQuery(sql, Object[].class)
+                .addScalar("id", UUID.class)
+                .addScalar("usuario", String.class)
+                .addScalar("conteudo", String.class)
+                .addScalar("data_criacao", LocalDateTime.class)
+                .addScalar("data_alteracao", LocalDateTime.class)
+                .addScalar("gostei", Integer.class)
+                .addScalar("versao", Long.class)
+                .setParameter("id", id)
+                .setParameter("usuario", usuario)
+                .setParameter("conteudo", conteudo)
+                .setParameter("dataAlteracao", dataAlteracao);
+        if (versao != null) {
+            consulta.setParameter("versao", versao);
+        }
+        var linhas = consulta.getResultList();
+        // como no @Modifying(clearAutomatically = true) das demais escritas
+        entityManager.clear();
+        if (linhas.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // para o Hibernate a instrução é uma consulta: ele não descarta sozinho o que ela deixou velho no segundo nível
+        var cacheSegundoNivel = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheSegundoNivel.evictEntityData(Mensagem.class, id);
+                cacheSegundoNivel.evictQueryRegion(MensagemRepository.REGIAO_PAGINAS);
+            }
+        });
+
+        var linha = linhas.get(0);
+        return Optional.of(Mensagem.builder()
+                .id((UUID) linha[0])
+                .usuario((String) linha[1])
+                .conteudo((String) linha[2])
+                .dataCriacao((LocalDateTime) linha[3])
+                .dataAlteracao((LocalDateTime) linha[4])
+                .gostei((Integer) linha[5])
+                .versao((Long) linha[6])
+                .build());
+    }
+
+    private Dialect dialeto() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+    }
+
+    private static Predicate[] predicados(FiltroMensagens filtro, CriteriaBuilder criteria, Root<Mensagem> mensagem) {
+        var predicados = new ArrayList<Predicate>(3);
+        if (filtro.usuario() != null) {
+            predicados.add(criteria.equal(mensagem.get("usuario"), filtro.usuario()));
+        }
+        if (filtro.de() != null) {
+            predicados.add(criteria.greaterThanOrEqualTo(mensagem.get("dataCriacao"), filtro.de()));
+        }
+        if (filtro.ate() != null) {
+            predicados.add(criteria.lessThan(mensagem.get("dataCriacao"), filtro.ate()));
+        }
+        return predicados.toArray(Predicate[]::new);
+    }
+}
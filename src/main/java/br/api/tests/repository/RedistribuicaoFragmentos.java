@@ -0,0 +1,155 @@
+package br.api.tests.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Move para os fragmentos novos as mensagens que mudaram de lugar ao acrescentar fragmentos, com a aplicação no ar.
+ * Cada mensagem é copiada para o destino e só então removida da origem, se não mudou desde a cópia. Até a remoção a
+ * mensagem existe nos dois fragmentos: as escritas já vão para o destino, e só as que chegaram à origem antes da
+ * cópia existir mudam a origem. Essas mudanças são somadas ao destino como diferença em relação ao estado copiado,
+ * nunca por cima dele, para não apagar as escritas que o destino recebeu enquanto isso.
+ * <p>
+ * Terminada a redistribuição, {@code mensagens.fragmentacao.fragmentos-anteriores} deve ser removida.
+ */
+@Slf4j
+public class RedistribuicaoFragmentos {
+
+    private static final UUID MENOR_ID = new UUID(0, 0);
+    private static final int TAMANHO_LOTE = 500;
+
+    private static final String SQL_LER = """
+            select id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao from mensagem
+            where id > ? order by id limit ?""";
+    private static final String SQL_RELER = """
+            select id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao from mensagem where id = ?""";
+    private static final String SQL_SOMAR_GOSTEI = "update mensagem set gostei = gostei + ? where id = ?";
+    private static final String SQL_SOMAR_ALTERACAO = """
+            update mensagem set usuario = ?, conteudo = ?, data_alteracao = ?, gostei = gostei + ?, versao = versao + ?
+            where id = ?""";
+    private static final String SQL_INSERIR = """
+            insert into mensagem (usuario, conteudo, data_criacao, data_alteracao, gostei, versao, id)
+            values (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String SQL_REMOVER_SE_INALTERADA = "delete from mensagem where id = ? and versao = ? and gostei = ?";
+    private static final String SQL_REMOVER = "delete from mensagem where id = ?";
+
+    private static final RowMapper<Linha> LINHA = (resultado, numero) -> new Linha(
+            resultado.getObject("id", UUID.class),
+            resultado.getString("usuario"),
+            resultado.getString("conteudo"),
+            resultado.getTimestamp("data_criacao"),
+            resultado.getTimestamp("data_alteracao"),
+            resultado.getInt("gostei"),
+            resultado.getLong("versao"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Fragmentador fragmentador;
+
+    public RedistribuicaoFragmentos(DataSource dataSource, Fragmentador fragmentador) {
+        this(new JdbcTemplate(dataSource), fragmentador);
+    }
+
+    RedistribuicaoFragmentos(JdbcTemplate jdbcTemplate, Fragmentador fragmentador) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fragmentador = fragmentador;
+    }
+
+    /**
+     * Percorre os fragmentos anteriores e devolve quantas mensagens foram movidas. Pode ser repetida com segurança.
+     */
+    public long redistribuir() {
+        if (!fragmentador.redistribuindo()) {
+            return 0;
+        }
+        long movidas = 0;
+        // o hash consistente só move mensagens dos fragmentos antigos para os novos
+        for (int origem = 0; origem < fragmentador.quantidadeAnterior(); origem++) {
+            var ultimo = MENOR_ID;
+            while (true) {
+                var apos = ultimo;
+                var lote = em(origem, () -> jdbcTemplate.query(SQL_LER, LINHA, apos, TAMANHO_LOTE));
+                for (var linha : lote) {
+                    var destino = fragmentador.fragmento(linha.id());
+                    if (destino != origem) {
+                        mover(linha, origem, destino);
+                        movidas++;
+                    }
+                }
+                if (lote.size() < TAMANHO_LOTE) {
+                    break;
+                }
+                ultimo = lote.get(lote.size() - 1).id();
+            }
+            log.info("fragmento {} redistribuído, {} mensagens movidas até agora", origem, movidas);
+        }
+        return movidas;
+    }
+
+    private void mover(Linha linha, int origem, int destino) {
+        copiar(linha, destino);
+        var copiada = linha;
+        while (true) {
+            var removida = copiada;
+            if (em(origem, () -> jdbcTemplate.update(SQL_REMOVER_SE_INALTERADA,
+                    removida.id(), removida.versao(), removida.gostei())) == 1) {
+                return;
+            }
+            var atual = em(origem, () -> jdbcTemplate.query(SQL_RELER, LINHA, removida.id())).stream()
+                    .findFirst()
+                    .orElse(null);
+            if (atual == null) {
+                break;
+            }
+            somar(copiada, atual, destino);
+            copiada = atual;
+        }
+        // removida da origem depois da leitura: a cópia não pode ressuscitá-la
+        em(destino, () -> jdbcTemplate.update(SQL_REMOVER, linha.id()));
+    }
+
+    /**
+     * Grava a mensagem no destino se ela ainda não estiver lá. Se estiver, veio de uma redistribuição interrompida e
+     * já recebe as escritas desde então; é mantida como está.
+     */
+    private void copiar(Linha linha, int destino) {
+        em(destino, () -> {
+            try {
+                jdbcTemplate.update(SQL_INSERIR, linha.usuario(), linha.conteudo(), linha.dataCriacao(),
+                        linha.dataAlteracao(), linha.gostei(), linha.versao(), linha.id());
+            } catch (DuplicateKeyException e) {
+                log.debug("mensagem {} já estava no fragmento {}", linha.id(), destino);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Leva ao destino o que a origem recebeu depois da última cópia. Gosteis só aumentam e cada alteração incrementa
+     * a versão, então a diferença se soma às escritas que o destino recebeu no mesmo intervalo.
+     */
+    private void somar(Linha copiada, Linha atual, int destino) {
+        var gosteis = atual.gostei() - copiada.gostei();
+        var versoes = atual.versao() - copiada.versao();
+        em(destino, () -> versoes == 0
+                ? jdbcTemplate.update(SQL_SOMAR_GOSTEI, gosteis, atual.id())
+                : jdbcTemplate.update(SQL_SOMAR_ALTERACAO, atual.usuario(), atual.conteudo(), atual.dataAlteracao(),
+                        gosteis, versoes, atual.id()));
+    }
+
+    private static <T> T em(int fragmento, Supplier<T> operacao) {
+        try (var escopo = FragmentoAtual.em(fragmento)) {
+            return operacao.get();
+        }
+    }
+
+    private record Linha(UUID id, String usuario, String conteudo, Timestamp dataCriacao, Timestamp dataAlteracao,
+                         int gostei, long versao) {
+    }
+}
@@ -0,0 +1,86 @@
+package br.api.tests.service;
+
+import br.api.tests.config.DestinoLeitura;
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.repository.MensagemArmazenamento;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Total aproximado de mensagens, mantido pelos ajustes das escritas desta instância e recontado
+ * periodicamente para absorver as escritas feitas fora dela. A recontagem roda numa thread própria;
+ * só a primeira consulta ao total espera uma contagem.
+ */
+@Slf4j
+@Component
+public class ContadorMensagens {
+
+    private final MensagemArmazenamento mensagemRepository;
+    private final ScheduledExecutorService agendador;
+
+    // nunca é zerado: total() soma a ele uma base publicada de uma vez, sem ver uma recontagem pela metade
+    private final LongAdder ajuste = new LongAdder();
+    // contagem do banco menos os ajustes já somados quando ela começou
+    private volatile Long base;
+
+    public ContadorMensagens(MensagemArmazenamento mensagemRepository, MensagemProperties mensagemProperties) {
+        this.mensagemRepository = mensagemRepository;
+
+        var intervalo = mensagemProperties.getTotal().getRecontagem().toMillis();
+        this.agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "total-recontagem");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::recontarAgendado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    public void ajustar(long delta) {
+        ajuste.add(delta);
+    }
+
+    public long total() {
+        var contagem = base;
+        if (contagem == null) {
+            synchronized (this) {
+                if (base == null) {
+                    recontar();
+                }
+                contagem = base;
+            }
+        }
+        return contagem + ajuste.sum();
+    }
+
+    /**
+     * Os ajustes lidos antes da contagem são de escritas já confirmadas, que ela inclui, e saem da base; os que
+     * chegam durante ela continuam somados, porque a contagem pode não incluí-los. Só uma escrita confirmada antes da
+     * contagem cujo ajuste chegue depois dessa leitura fica contada duas vezes, até a recontagem seguinte.
+     */
+    public synchronized void recontar() {
+        var ajusteIncluido = ajuste.sum();
+        // a réplica pode não ter as escritas cujos ajustes acabaram de ser descontados
+        try (var escopo = DestinoLeitura.primario()) {
+            base = mensagemRepository.count() - ajusteIncluido;
+        }
+    }
+
+    private void recontarAgendado() {
+        try {
+            recontar();
+        } catch (RuntimeException e) {
+            log.error("falha ao recontar as mensagens; o total segue pelos ajustes até a próxima recontagem", e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+}
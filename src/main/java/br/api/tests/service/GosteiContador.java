@@ -0,0 +1,22 @@
+package br.api.tests.service;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public interface GosteiContador {
+
+    void incrementar(UUID id);
+
+    /**
+     * Incrementos já aceitos que ainda não foram gravados na coluna gostei.
+     */
+    long pendente(UUID id);
+
+    /**
+     * Executa uma leitura que soma {@link #pendente(UUID)} ao valor gravado. Se uma descarga for confirmada no meio
+     * dela, a leitura é repetida: o valor lido do banco poderia já incluir gosteis ainda contados como pendentes.
+     */
+    default <T> T lerConsistente(Supplier<T> leitura) {
+        return leitura.get();
+    }
+}
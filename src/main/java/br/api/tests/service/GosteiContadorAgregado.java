@@ -0,0 +1,265 @@
+package br.api.tests.service;
+
+import br.api.tests.config.DestinoLeitura;
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.model.Mensagem;
+import br.api.tests.repository.MensagemArmazenamento;
+import br.api.tests.repository.MensagemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Acumula os gosteis por mensagem em contadores listrados e os grava periodicamente em UPDATEs em lote,
+ * evitando que uma mensagem muito curtida concentre todas as escritas em uma única linha.
+ * <p>
+ * Cada descarga move os incrementos para uma área "em voo" antes de abrir a transação: eles continuam somados às
+ * leituras até a confirmação e voltam para os pendentes se ela falhar. A movimentação e a confirmação são
+ * transições numeradas (como num seqlock); uma leitura que atravesse uma delas é repetida por
+ * {@link #lerConsistente(Supplier)}, sem que leitores segurem bloqueio durante o acesso ao banco.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "mensagens.gostei", name = "agregacao", havingValue = "true")
+public class GosteiContadorAgregado implements GosteiContador {
+
+    private static final String SQL_DESCARGA = "update mensagem set gostei = gostei + ? where id = ?";
+    private static final Duration VERIFICACAO_MAXIMA = Duration.ofMillis(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MensagemArmazenamento mensagemRepository;
+    private final MensagemCache mensagemCache;
+    private final Cache cacheSegundoNivel;
+    private final MensagemProperties.Gostei propriedades;
+
+    private final Map<UUID, LongAdder> pendentes = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> emVoo = new ConcurrentHashMap<>();
+    private final LongAdder totalPendente = new LongAdder();
+    // ímpar enquanto uma transição está em andamento; quem a conduz segura o bloqueio
+    private final AtomicLong sequencia = new AtomicLong();
+    private final ReentrantLock transicao = new ReentrantLock();
+    private final ScheduledExecutorService agendador;
+    private final Timer tempoDescarga;
+    private final Counter gosteisDescarregados;
+    private final Counter gosteisDescartados;
+
+    private volatile long ultimaDescarga = System.nanoTime();
+
+    public GosteiContadorAgregado(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  MensagemArmazenamento mensagemRepository,
+                                  MensagemCache mensagemCache,
+                                  EntityManagerFactory entityManagerFactory,
+                                  MensagemProperties mensagemProperties,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mensagemRepository = mensagemRepository;
+        this.mensagemCache = mensagemCache;
+        this.cacheSegundoNivel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.propriedades = mensagemProperties.getGostei();
+
+        this.tempoDescarga = Timer.builder("mensagens.gostei.descarga")
+                .description("Tempo gasto gravando os gosteis acumulados")
+                .register(meterRegistry);
+        this.gosteisDescarregados = Counter.builder("mensagens.gostei.descarregados")
+                .description("Gosteis gravados pelas descargas")
+                .register(meterRegistry);
+        this.gosteisDescartados = Counter.builder("mensagens.gostei.descartados")
+                .description("Gosteis de mensagens removidas antes da descarga")
+                .register(meterRegistry);
+        Gauge.builder("mensagens.gostei.pendentes", totalPendente, LongAdder::sum)
+                .description("Gosteis aceitos ainda não gravados")
+                .register(meterRegistry);
+
+        var verificacao = propriedades.getIntervalo().compareTo(VERIFICACAO_MAXIMA) < 0
+                ? propriedades.getIntervalo()
+                : VERIFICACAO_MAXIMA;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "gostei-descarga");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::descarregarSeNecessario,
+                verificacao.toMillis(), verificacao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void incrementar(UUID id) {
+        // sem a verificação, o incremento de uma mensagem inexistente ficaria pendente até a descarga
+        if (mensagemCache.consultar(id) == null && !existe(id)) {
+            throw new MensagemNotFoundException("Mensagem não encontrada.");
+        }
+        while (true) {
+            var contador = pendentes.computeIfAbsent(id, chave -> new LongAdder());
+            contador.increment();
+            // a descarga pode ter removido este contador (zerado) entre a busca e o incremento
+            if (pendentes.get(id) == contador) {
+                break;
+            }
+            contador.decrement();
+        }
+        totalPendente.increment();
+    }
+
+    @Override
+    public long pendente(UUID id) {
+        var contador = pendentes.get(id);
+        return (contador == null ? 0 : contador.sum()) + emVoo.getOrDefault(id, 0L);
+    }
+
+    @Override
+    public <T> T lerConsistente(Supplier<T> leitura) {
+        while (true) {
+            var inicio = sequencia.get();
+            if ((inicio & 1) == 0) {
+                var resultado = leitura.get();
+                if (sequencia.get() == inicio) {
+                    return resultado;
+                }
+            }
+            // espera a transição em andamento terminar antes de repetir a leitura
+            transicao.lock();
+            transicao.unlock();
+        }
+    }
+
+    private boolean existe(UUID id) {
+        try (var escopo = DestinoLeitura.primario()) {
+            return mensagemRepository.existsById(id);
+        }
+    }
+
+    private void descarregarSeNecessario() {
+        var decorrido = System.nanoTime() - ultimaDescarga;
+        if (totalPendente.sum() >= propriedades.getLimite()
+                || decorrido >= propriedades.getIntervalo().toNanos()) {
+            try {
+                descarregar();
+            } catch (RuntimeException e) {
+                log.error("falha ao gravar os gosteis acumulados; serão regravados na próxima descarga", e);
+            }
+        }
+    }
+
+    public synchronized void descarregar() {
+        ultimaDescarga = System.nanoTime();
+        var deltas = new ArrayList<Object[]>();
+        emTransicao(() -> {
+            pendentes.forEach((id, contador) -> {
+                var delta = contador.sum();
+                if (delta != 0) {
+                    // incrementos concorrentes a partir daqui continuam no contador
+                    contador.add(-delta);
+                    emVoo.put(id, delta);
+                    deltas.add(new Object[]{delta, id});
+                } else {
+                    pendentes.computeIfPresent(id, (chave, atual) -> atual.sum() == 0 ? null : atual);
+                }
+            });
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        var amostra = Timer.start();
+        var gerenciador = transactionTemplate.getTransactionManager();
+        var transacao = gerenciador.getTransaction(transactionTemplate);
+        try {
+            var linhas = jdbcTemplate.batchUpdate(SQL_DESCARGA, deltas, propriedades.getLote(), (ps, delta) -> {
+                ps.setLong(1, (Long) delta[0]);
+                ps.setObject(2, delta[1]);
+            });
+            emTransicao(() -> {
+                gerenciador.commit(transacao);
+                concluir(deltas, linhas);
+            });
+        } catch (RuntimeException e) {
+            if (!transacao.isCompleted()) {
+                gerenciador.rollback(transacao);
+            }
+            emTransicao(this::restaurar);
+            throw e;
+        } finally {
+            amostra.stop(tempoDescarga);
+        }
+    }
+
+    private void concluir(List<Object[]> deltas, int[][] linhas) {
+        emVoo.clear();
+        long gravados = 0;
+        long descartados = 0;
+        var i = 0;
+        for (var lote : linhas) {
+            for (var linhasAfetadas : lote) {
+                var delta = (Long) deltas.get(i)[0];
+                var id = (UUID) deltas.get(i)[1];
+                i++;
+                // nenhuma linha: a mensagem foi removida depois do incremento; SUCCESS_NO_INFO conta como gravado
+                if (linhasAfetadas == 0) {
+                    descartados += delta;
+                    continue;
+                }
+                gravados += delta;
+                mensagemCache.invalidar(id);
+                cacheSegundoNivel.evictEntityData(Mensagem.class, id);
+            }
+        }
+        // o UPDATE via JDBC não passa pelo Hibernate, que não saberia que as páginas em cache ficaram velhas
+        cacheSegundoNivel.evictQueryRegion(MensagemRepository.REGIAO_PAGINAS);
+        totalPendente.add(-(gravados + descartados));
+        gosteisDescarregados.increment(gravados);
+        gosteisDescartados.increment(descartados);
+        log.debug("descarga de gosteis concluída: Mensagens={}, Gosteis={}, Descartados={}",
+                deltas.size(), gravados, descartados);
+    }
+
+    private void restaurar() {
+        emVoo.forEach((id, delta) -> pendentes.computeIfAbsent(id, chave -> new LongAdder()).add(delta));
+        emVoo.clear();
+    }
+
+    private void emTransicao(Runnable acao) {
+        transicao.lock();
+        sequencia.incrementAndGet();
+        try {
+            acao.run();
+        } finally {
+            sequencia.incrementAndGet();
+            transicao.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        agendador.shutdown();
+        agendador.awaitTermination(propriedades.getIntervalo().toMillis() + 1_000, TimeUnit.MILLISECONDS);
+        descarregar();
+    }
+}
@@ -0,0 +1,31 @@
+package br.api.tests.service;
+
+import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.repository.MensagemArmazenamento;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "mensagens.gostei", name = "agregacao", havingValue = "false", matchIfMissing = true)
+public class GosteiContadorDireto implements GosteiContador {
+
+    private final MensagemArmazenamento mensagemRepository;
+    private final MensagemCache mensagemCache;
+
+    @Override
+    public void incrementar(UUID id) {
+        if (mensagemRepository.incrementarGostei(id) == 0) {
+            throw new MensagemNotFoundException("Mensagem não encontrada.");
+        }
+        mensagemCache.invalidar(id);
+    }
+
+    @Override
+    public long pendente(UUID id) {
+        return 0;
+    }
+}
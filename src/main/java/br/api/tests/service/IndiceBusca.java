@@ -0,0 +1,156 @@
+package br.api.tests.service;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.Mensagem;
+import br.api.tests.repository.MensagemArmazenamento;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Índice invertido em memória sobre o conteúdo das mensagens, mantido pelas escritas do serviço e
+ * reconstruído a partir do banco na inicialização. A relevância é TF-IDF normalizado pelo tamanho do texto.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceBusca {
+
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator.comparingDouble(Resultado::relevancia)
+            .thenComparing(Resultado::id);
+
+    private final MensagemArmazenamento mensagemRepository;
+    private final MensagemProperties mensagemProperties;
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<UUID, Integer>> ocorrencias = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Documento> documentos = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void inicializar() {
+        if (mensagemProperties.getBusca().isReconstruirNaInicializacao()) {
+            reconstruir();
+        }
+    }
+
+    public void indexar(UUID id, String conteudo) {
+        var frequencias = new HashMap<String, Integer>();
+        Tokenizador.tokenizar(conteudo).forEach(termo -> frequencias.merge(termo, 1, Integer::sum));
+        var documento = new Documento(frequencias, frequencias.values().stream().mapToInt(Integer::intValue).sum());
+
+        // o compute serializa as atualizações de uma mesma mensagem
+        documentos.compute(id, (chave, anterior) -> {
+            if (anterior != null) {
+                retirarOcorrencias(id, anterior);
+            }
+            frequencias.forEach((termo, frequencia) -> ocorrencias.compute(termo, (t, mensagens) -> {
+                var atualizadas = mensagens == null ? new ConcurrentHashMap<UUID, Integer>() : mensagens;
+                atualizadas.put(id, frequencia);
+                return atualizadas;
+            }));
+            return documento;
+        });
+    }
+
+    public void remover(UUID id) {
+        documentos.computeIfPresent(id, (chave, anterior) -> {
+            retirarOcorrencias(id, anterior);
+            return null;
+        });
+    }
+
+    /**
+     * Devolve os ids das {@code quantidade} mensagens mais relevantes para a consulta, da mais para a menos relevante.
+     */
+    public List<UUID> buscar(String consulta, int quantidade) {
+        var total = documentos.size();
+        var relevancias = new HashMap<UUID, Double>();
+        for (var termo : Set.copyOf(Tokenizador.tokenizar(consulta))) {
+            var mensagens = ocorrencias.get(termo);
+            if (mensagens == null || mensagens.isEmpty()) {
+                continue;
+            }
+            var idf = Math.log(1 + (double) total / mensagens.size());
+            mensagens.forEach((id, frequencia) ->
+                    relevancias.merge(id, (1 + Math.log(frequencia)) * idf, Double::sum));
+        }
+
+        var melhores = new PriorityQueue<>(quantidade + 1, POR_RELEVANCIA);
+        relevancias.forEach((id, relevancia) -> {
+            var documento = documentos.get(id);
+            if (documento == null) {
+                return;
+            }
+            melhores.add(new Resultado(id, relevancia / Math.sqrt(documento.comprimento())));
+            if (melhores.size() > quantidade) {
+                melhores.poll();
+            }
+        });
+
+        var ids = new ArrayList<UUID>(melhores.size());
+        while (!melhores.isEmpty()) {
+            ids.add(melhores.poll().id());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    /**
+     * Descarta o índice e o refaz percorrendo o banco com cursor; os lotes lidos são tokenizados em paralelo
+     * enquanto o cursor avança. Escritas concorrentes à reconstrução podem não ser refletidas.
+     */
+    public void reconstruir() {
+        var inicio = System.nanoTime();
+        ocorrencias.clear();
+        documentos.clear();
+
+        var propriedades = mensagemProperties.getBusca();
+        var emAndamento = new Semaphore(Runtime.getRuntime().availableProcessors() * 2);
+        var tarefas = new ArrayList<CompletableFuture<Void>>();
+        var lote = new ArrayList<Mensagem>(propriedades.getLote());
+        mensagemRepository.percorrerTodas(mensagemProperties.getExportacao().getFetchSize(), mensagem -> {
+            lote.add(mensagem);
+            if (lote.size() == propriedades.getLote()) {
+                tarefas.add(indexarEmParalelo(List.copyOf(lote), emAndamento));
+                lote.clear();
+            }
+        });
+        tarefas.add(indexarEmParalelo(List.copyOf(lote), emAndamento));
+        CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).join();
+
+        log.info("índice de busca reconstruído: Mensagens={}, Termos={}, Duração={}ms",
+                documentos.size(), ocorrencias.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private CompletableFuture<Void> indexarEmParalelo(List<Mensagem> lote, Semaphore emAndamento) {
+        emAndamento.acquireUninterruptibly();
+        return CompletableFuture.runAsync(() -> lote.forEach(mensagem -> indexar(mensagem.getId(), mensagem.getConteudo())))
+                .whenComplete((resultado, erro) -> emAndamento.release());
+    }
+
+    private void retirarOcorrencias(UUID id, Documento documento) {
+        documento.frequencias().keySet().forEach(termo -> ocorrencias.computeIfPresent(termo, (t, mensagens) -> {
+            mensagens.remove(id);
+            return mensagens.isEmpty() ? null : mensagens;
+        }));
+    }
+
+    private record Documento(Map<String, Integer> frequencias, int comprimento) {
+    }
+
+    private record Resultado(UUID id, double relevancia) {
+    }
+}
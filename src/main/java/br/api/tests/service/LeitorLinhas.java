@@ -0,0 +1,78 @@
+package br.api.tests.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lê linhas como {@link java.io.BufferedReader#readLine()}, mas sem guardar mais do que o tamanho máximo: o restante
+ * de uma linha longa demais é lido e descartado, e {@link #excedeu()} indica o corte.
+ */
+class LeitorLinhas implements Closeable {
+
+    private final Reader leitor;
+    private final int tamanhoMaximo;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder linha = new StringBuilder();
+    private int posicao;
+    private int limite;
+    // um \r termina a linha; o \n logo depois dele não abre outra
+    private boolean aposRetorno;
+    private boolean excedeu;
+
+    LeitorLinhas(Reader leitor, int tamanhoMaximo) {
+        this.leitor = leitor;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /**
+     * Devolve a próxima linha, sem o terminador, ou {@code null} no fim da entrada. Uma linha além do tamanho máximo
+     * volta vazia.
+     */
+    String proxima() throws IOException {
+        linha.setLength(0);
+        excedeu = false;
+        var caractere = ler();
+        if (aposRetorno && caractere == '\n') {
+            caractere = ler();
+        }
+        aposRetorno = false;
+        if (caractere == -1) {
+            return null;
+        }
+        while (caractere != -1 && caractere != '\n' && caractere != '\r') {
+            if (linha.length() < tamanhoMaximo) {
+                linha.append((char) caractere);
+            } else {
+                excedeu = true;
+            }
+            caractere = ler();
+        }
+        aposRetorno = caractere == '\r';
+        return excedeu ? "" : linha.toString();
+    }
+
+    /**
+     * Indica se a última linha devolvida passou do tamanho máximo.
+     */
+    boolean excedeu() {
+        return excedeu;
+    }
+
+    private int ler() throws IOException {
+        if (posicao == limite) {
+            limite = leitor.read(buffer, 0, buffer.length);
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicao++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+}
@@ -0,0 +1,73 @@
+package br.api.tests.service;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.Mensagem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura de mensagens, limitado por tamanho (admissão W-TinyLFU do Caffeine) e por tempo de vida.
+ * Guarda cópias desanexadas do estado gravado no banco; gosteis pendentes são mesclados pelo serviço.
+ */
+@Component
+public class MensagemCache {
+
+    private final Cache<UUID, Mensagem> cache;
+
+    public MensagemCache(MensagemProperties mensagemProperties, MeterRegistry meterRegistry) {
+        var propriedades = mensagemProperties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(propriedades.getTamanhoMaximo())
+                .expireAfterWrite(propriedades.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mensagens");
+    }
+
+    public Mensagem obter(UUID id, Function<UUID, Mensagem> carregador) {
+        var mensagem = cache.get(id, chave -> copiar(carregador.apply(chave)));
+        return copiar(mensagem);
+    }
+
+    /**
+     * Busca várias mensagens de uma vez: as ausentes do cache são entregues juntas ao carregador, e as que
+     * ele não devolver ficam fora do resultado (e do cache).
+     */
+    public Map<UUID, Mensagem> obterTodas(Collection<UUID> ids,
+                                          Function<Set<? extends UUID>, Map<UUID, Mensagem>> carregador) {
+        var mensagens = cache.getAll(ids, chaves -> {
+            var carregadas = new HashMap<UUID, Mensagem>();
+            carregador.apply(chaves).forEach((id, mensagem) -> carregadas.put(id, copiar(mensagem)));
+            return carregadas;
+        });
+        var copias = new HashMap<UUID, Mensagem>(mensagens.size());
+        mensagens.forEach((id, mensagem) -> copias.put(id, copiar(mensagem)));
+        return copias;
+    }
+
+    public Mensagem consultar(UUID id) {
+        return copiar(cache.getIfPresent(id));
+    }
+
+    public void invalidar(UUID id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidarTodas() {
+        cache.invalidateAll();
+    }
+
+    private static Mensagem copiar(Mensagem mensagem) {
+        return mensagem == null ? null : mensagem.toBuilder().build();
+    }
+}
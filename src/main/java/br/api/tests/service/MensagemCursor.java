@@ -0,0 +1,44 @@
+package br.api.tests.service;
+
+import br.api.tests.model.Mensagem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição opaca da listagem por cursor: a chave (dataCriacao, id) da última mensagem entregue.
+ */
+record MensagemCursor(LocalDateTime dataCriacao, UUID id) {
+
+    private static final char SEPARADOR = '|';
+    private static final String CURSOR_INVALIDO = "O cursor fornecido é inválido.";
+
+    static MensagemCursor de(Mensagem mensagem) {
+        return new MensagemCursor(mensagem.getDataCriacao(), mensagem.getId());
+    }
+
+    String codificar() {
+        var valor = dataCriacao.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MensagemCursor decodificar(String cursor) {
+        try {
+            var valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException(CURSOR_INVALIDO);
+            }
+            return new MensagemCursor(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    UUID.fromString(valor.substring(separador + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // Base64 e UUID inválidos também chegam como IllegalArgumentException, com mensagens técnicas
+            throw new IllegalArgumentException(CURSOR_INVALIDO, e);
+        }
+    }
+}
@@ -1,23 +1,74 @@
 package br.api.tests.service;
 
+import br.api.tests.model.CursorPage;
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.model.ResultadoBuscaPorIds;
+import br.api.tests.model.ResultadoImportacao;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface MensagemService {
 
     Mensagem registrarMensagem(Mensagem mensagem);
 
+    List<UUID> registrarMensagens(List<Mensagem> mensagens);
+
     Mensagem buscarMensagem(UUID id);
 
+    /**
+     * Busca as mensagens na ordem dos ids informados, listando à parte os que não existem.
+     */
+    ResultadoBuscaPorIds buscarMensagens(List<UUID> ids);
+
+    /**
+     * Busca no índice de texto as mensagens mais relevantes para a consulta, da mais para a menos relevante.
+     */
+    List<Mensagem> buscarPorTexto(String consulta, int quantidade);
+
     Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada);
 
+    /**
+     * Altera a mensagem somente se a versão gravada for {@code versaoEsperada};
+     * com {@code null} a alteração é incondicional.
+     */
+    Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada, Long versaoEsperada);
+
     boolean removerMensagem(UUID id);
 
     Mensagem incrementarGostei(UUID id);
 
-    Page<Mensagem> listasMensagens(Pageable pageable);
+    /**
+     * Mensagens com mais gosteis, servidas do ranking em memória.
+     */
+    List<PosicaoRanking> listarMaisCurtidas(int quantidade);
+
+    Page<MensagemResumo> listasMensagens(Pageable pageable);
+
+    Page<MensagemResumo> listasMensagens(FiltroMensagens filtro, Pageable pageable);
+
+    /**
+     * Lista sem executar o count da {@link Page}: busca um registro a mais para saber se há próxima fatia.
+     */
+    Slice<MensagemResumo> listarMensagensEmFatia(Pageable pageable);
+
+    /**
+     * Total aproximado, mantido incrementalmente em vez de recontado a cada chamada.
+     */
+    long contarMensagens();
+
+    CursorPage<Mensagem> listarMensagensPorCursor(String after, int size);
+
+    void exportarMensagens(Consumer<Mensagem> consumidor);
+
+    ResultadoImportacao importarMensagens(InputStream entrada);
 
 }
\ No newline at end of file
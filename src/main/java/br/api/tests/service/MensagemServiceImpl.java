@@ -1,62 +1,492 @@
 package br.api.tests.service;
 
+import br.api.tests.config.DestinoLeitura;
+import br.api.tests.config.MensagemProperties;
 import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.exception.MensagemVersaoConflitanteException;
+import br.api.tests.exception.MensagensInvalidasException;
+import br.api.tests.model.CursorPage;
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
-import br.api.tests.repository.MensagemRepository;
+import br.api.tests.model.MensagemInvalida;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.model.ResultadoBuscaPorIds;
+import br.api.tests.model.ResultadoImportacao;
+import br.api.tests.repository.MensagemArmazenamento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "mensagens.servico", description = "Tempo dos métodos do serviço de mensagens", histogram = true)
 public class MensagemServiceImpl implements MensagemService {
 
-    private final MensagemRepository mensagemRepository;
+    private final MensagemArmazenamento mensagemRepository;
+    private final GosteiContador gosteiContador;
+    private final MensagemCache mensagemCache;
+    private final ContadorMensagens contadorMensagens;
+    private final IndiceBusca indiceBusca;
+    private final RankingGostei rankingGostei;
+    private final MensagemProperties mensagemProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
 
     @Override
     public Mensagem registrarMensagem(Mensagem mensagem) {
-        return mensagemRepository.save(mensagem);
+        exigirValida(mensagem);
+        mensagem.setId(null);
+        mensagem.setDataCriacao(null);
+        var mensagemSalva = mensagemRepository.save(mensagem);
+        contadorMensagens.ajustar(1);
+        indiceBusca.indexar(mensagemSalva.getId(), mensagemSalva.getConteudo());
+        rankingGostei.registrar(mensagemSalva.getId(), mensagemSalva.getGostei());
+        return mensagemSalva;
+    }
+
+    @Override
+    public List<UUID> registrarMensagens(List<Mensagem> mensagens) {
+        // cada lote é confirmado separadamente, então nada é gravado antes de todas as mensagens serem validadas
+        validarLote(mensagens);
+        var tamanhoLote = mensagemProperties.getLote().getTamanho();
+        var ids = new ArrayList<UUID>(mensagens.size());
+        for (int inicio = 0; inicio < mensagens.size(); inicio += tamanhoLote) {
+            var lote = mensagens.subList(inicio, Math.min(inicio + tamanhoLote, mensagens.size())).stream()
+                    .map(mensagem -> mensagem.toBuilder().id(null).dataCriacao(null).build())
+                    .toList();
+            mensagemRepository.persistirEmLote(lote).forEach(mensagem -> {
+                ids.add(mensagem.getId());
+                indiceBusca.indexar(mensagem.getId(), mensagem.getConteudo());
+                rankingGostei.registrar(mensagem.getId(), mensagem.getGostei());
+            });
+            contadorMensagens.ajustar(lote.size());
+        }
+        return ids;
     }
 
     @Override
     public Mensagem buscarMensagem(UUID id) {
-        return mensagemRepository.findById(id)
-                .orElseThrow(() -> new MensagemNotFoundException("Mensagem não encontrada."));
+        var mensagem = gosteiContador.lerConsistente(() -> {
+            var gravada = mensagemCache.obter(id, this::carregar);
+            return gravada == null ? null : mesclarGosteiPendente(gravada);
+        });
+        if (mensagem == null) {
+            throw new MensagemNotFoundException("Mensagem não encontrada.");
+        }
+        return mensagem;
+    }
+
+    @Override
+    public ResultadoBuscaPorIds buscarMensagens(List<UUID> ids) {
+        var propriedades = mensagemProperties.getBuscaPorIds();
+        var distintos = new LinkedHashSet<>(ids);
+        if (distintos.size() > propriedades.getMaximoIds()) {
+            throw new IllegalArgumentException(
+                    "quantidade de ids excede o máximo de " + propriedades.getMaximoIds());
+        }
+
+        return gosteiContador.lerConsistente(() -> {
+            var encontradas = mensagemCache.obterTodas(distintos,
+                    ausentes -> carregarPorIds(List.copyOf(ausentes), propriedades.getTamanhoConsulta()));
+
+            var mensagens = new ArrayList<Mensagem>(encontradas.size());
+            var naoEncontrados = new ArrayList<UUID>();
+            for (var id : distintos) {
+                var mensagem = encontradas.get(id);
+                if (mensagem == null) {
+                    naoEncontrados.add(id);
+                } else {
+                    mensagens.add(mesclarGosteiPendente(mensagem));
+                }
+            }
+            return new ResultadoBuscaPorIds(mensagens, naoEncontrados);
+        });
+    }
+
+    @Override
+    public List<Mensagem> buscarPorTexto(String consulta, int quantidade) {
+        var maximo = mensagemProperties.getBusca().getMaximoResultados();
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("a consulta não pode estar vazia");
+        }
+        if (quantidade < 1 || quantidade > maximo) {
+            throw new IllegalArgumentException("quantidade de resultados deve estar entre 1 e " + maximo);
+        }
+        return buscarMensagens(indiceBusca.buscar(consulta, quantidade)).mensagens();
+    }
+
+    private boolean existeNoPrimario(UUID id) {
+        try (var escopo = DestinoLeitura.primario()) {
+            return mensagemRepository.existsById(id);
+        }
+    }
+
+    // o cache é compartilhado entre os clientes, então só é preenchido a partir do primário; a mensagem é
+    // desanexada para que uma leitura repetida por lerConsistente volte ao banco em vez de reaproveitar a
+    // instância do contexto de persistência, que o open-in-view mantém durante toda a requisição
+    private Mensagem carregar(UUID id) {
+        try (var escopo = DestinoLeitura.primario()) {
+            var mensagem = mensagemRepository.findById(id).orElse(null);
+            if (mensagem != null) {
+                entityManager.detach(mensagem);
+            }
+            return mensagem;
+        }
+    }
+
+    private Map<UUID, Mensagem> carregarPorIds(List<UUID> ids, int tamanhoConsulta) {
+        var carregadas = new HashMap<UUID, Mensagem>(ids.size());
+        try (var escopo = DestinoLeitura.primario()) {
+            for (int inicio = 0; inicio < ids.size(); inicio += tamanhoConsulta) {
+                mensagemRepository.findAllById(ids.subList(inicio, Math.min(inicio + tamanhoConsulta, ids.size())))
+                        .forEach(mensagem -> {
+                            entityManager.detach(mensagem);
+                            carregadas.put(mensagem.getId(), mensagem);
+                        });
+            }
+        }
+        return carregadas;
     }
 
     @Override
     public Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada) {
-        var mensagem = buscarMensagem(id);
+        return alterarMensagem(id, mensagemAtualizada, null);
+    }
 
-        if (mensagemAtualizada.getId() != null && !mensagem.getId().equals(mensagemAtualizada.getId())) {
+    @Override
+    public Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada, Long versaoEsperada) {
+        if (mensagemAtualizada.getId() != null && !id.equals(mensagemAtualizada.getId())) {
             throw new IllegalArgumentException("mensagem não apresenta o ID correto");
         }
+        exigirValida(mensagemAtualizada);
 
-        mensagem.setConteudo(mensagemAtualizada.getConteudo());
-        mensagem.setUsuario(mensagemAtualizada.getUsuario());
-        mensagem.setDataAlteracao(LocalDateTime.now());
+        var conteudo = mensagemAtualizada.getConteudo();
+        var dataAlteracao = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 
-        return mensagemRepository.save(mensagem);
+        // a instrução devolve a mensagem alterada, então a resposta não precisa de uma nova leitura
+        var alterada = mensagemRepository.alterarConteudo(
+                id, mensagemAtualizada.getUsuario(), conteudo, dataAlteracao, versaoEsperada);
+        if (alterada.isEmpty()) {
+            if (versaoEsperada != null && existeNoPrimario(id)) {
+                throw new MensagemVersaoConflitanteException("A mensagem foi alterada por outra requisição.");
+            }
+            throw new MensagemNotFoundException("Mensagem não encontrada.");
+        }
+
+        // invalidada (e não atualizada) para que escritas concorrentes não deixem no cache um valor antigo
+        mensagemCache.invalidar(id);
+        indiceBusca.indexar(id, conteudo);
+        return mesclarGosteiPendente(alterada.get());
     }
 
     @Override
     public boolean removerMensagem(UUID id) {
-        buscarMensagem(id);
-        mensagemRepository.deleteById(id);
+        if (mensagemRepository.removerPorId(id) == 0) {
+            throw new MensagemNotFoundException("Mensagem não encontrada.");
+        }
+        mensagemCache.invalidar(id);
+        indiceBusca.remover(id);
+        rankingGostei.remover(id);
+        contadorMensagens.ajustar(-1);
         return true;
     }
 
     @Override
     public Mensagem incrementarGostei(UUID id) {
-        return null;
+        gosteiContador.incrementar(id);
+        var mensagem = buscarMensagem(id);
+        rankingGostei.registrar(id, mensagem.getGostei());
+        return mensagem;
     }
 
     @Override
-    public Page<Mensagem> listasMensagens(Pageable pageable) {
-        return mensagemRepository.findAll(pageable);
+    public List<PosicaoRanking> listarMaisCurtidas(int quantidade) {
+        var maximo = mensagemProperties.getRanking().getMaximo();
+        if (quantidade < 1 || quantidade > maximo) {
+            throw new IllegalArgumentException("quantidade de posições deve estar entre 1 e " + maximo);
+        }
+        return rankingGostei.topo(quantidade);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MensagemResumo> listasMensagens(Pageable pageable) {
+        validarTamanhoPagina(pageable);
+        var segundoNivel = mensagemProperties.getSegundoNivel();
+        var emCache = segundoNivel.isHabilitado() && pageable.getPageNumber() < segundoNivel.getPaginas();
+        return gosteiContador.lerConsistente(() -> (emCache
+                ? mensagemRepository.listarResumosEmCache(pageable)
+                : mensagemRepository.listarResumos(pageable))
+                .map(this::mesclarGosteiPendente));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MensagemResumo> listasMensagens(FiltroMensagens filtro, Pageable pageable) {
+        if (filtro.isVazio()) {
+            return listasMensagens(pageable);
+        }
+        validarTamanhoPagina(pageable);
+        if (filtro.de() != null && filtro.ate() != null && !filtro.de().isBefore(filtro.ate())) {
+            throw new IllegalArgumentException("o início do intervalo deve ser anterior ao fim");
+        }
+        return gosteiContador.lerConsistente(() -> mensagemRepository.listarResumos(filtro, pageable)
+                .map(this::mesclarGosteiPendente));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MensagemResumo> listarMensagensEmFatia(Pageable pageable) {
+        validarTamanhoPagina(pageable);
+        return gosteiContador.lerConsistente(() -> mensagemRepository.buscarFatia(pageable)
+                .map(this::mesclarGosteiPendente));
+    }
+
+    private void validarTamanhoPagina(Pageable pageable) {
+        if (pageable.isPaged()) {
+            validarTamanhoPagina(pageable.getPageSize());
+        }
+    }
+
+    private void validarTamanhoPagina(int tamanho) {
+        var maximo = mensagemProperties.getListagem().getTamanhoMaximo();
+        if (tamanho < 1 || tamanho > maximo) {
+            throw new IllegalArgumentException("tamanho da página deve estar entre 1 e " + maximo);
+        }
+    }
+
+    @Override
+    public long contarMensagens() {
+        return contadorMensagens.total();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Mensagem> listarMensagensPorCursor(String after, int size) {
+        validarTamanhoPagina(size);
+        var cursor = after == null || after.isBlank() ? null : MensagemCursor.decodificar(after);
+        // busca um registro a mais para saber se existe próxima janela sem executar count
+        var janela = PageRequest.ofSize(size + 1);
+        return gosteiContador.lerConsistente(() -> {
+            var mensagens = cursor == null
+                    ? mensagemRepository.buscarPrimeiraJanela(janela)
+                    : mensagemRepository.buscarJanelaApos(cursor.dataCriacao(), cursor.id(), janela);
+            // desanexadas para que uma leitura repetida volte ao banco
+            mensagens.forEach(entityManager::detach);
+
+            String proximo = null;
+            if (mensagens.size() > size) {
+                mensagens = mensagens.subList(0, size);
+                proximo = MensagemCursor.de(mensagens.get(size - 1)).codificar();
+            }
+            return new CursorPage<>(mensagens.stream().map(this::mesclarGosteiPendente).toList(), proximo);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarMensagens(Consumer<Mensagem> consumidor) {
+        // a exportação pode levar minutos e não é repetida: uma descarga concluída durante ela pode contar os
+        // gosteis em voo de uma mensagem duas vezes ou nenhuma
+        mensagemRepository.percorrerTodas(mensagemProperties.getExportacao().getFetchSize(),
+                mensagem -> consumidor.accept(mesclarGosteiPendente(mensagem)));
+    }
+
+    @Override
+    public ResultadoImportacao importarMensagens(InputStream entrada) {
+        var tamanhoLote = mensagemProperties.getLote().getTamanho();
+        var importacao = mensagemProperties.getImportacao();
+        var leitor = objectMapper.readerFor(Mensagem.class);
+        var lote = new ArrayList<Mensagem>(tamanhoLote);
+        var linhasDoLote = new ArrayList<Long>(tamanhoLote);
+        var rejeicoes = new Rejeicoes(importacao.getMaximoRejeicoesListadas());
+        long aceitas = 0;
+        long numeroLinha = 0;
+
+        try (var linhas = new LeitorLinhas(new InputStreamReader(entrada, StandardCharsets.UTF_8),
+                importacao.getTamanhoMaximoLinha())) {
+            String linha;
+            while ((linha = linhas.proxima()) != null) {
+                numeroLinha++;
+                if (linhas.excedeu()) {
+                    rejeicoes.adicionar(numeroLinha,
+                            "linha excede o máximo de " + importacao.getTamanhoMaximoLinha() + " caracteres");
+                    continue;
+                }
+                if (linha.isBlank()) {
+                    continue;
+                }
+
+                String motivo;
+                try {
+                    Mensagem mensagem = leitor.readValue(linha);
+                    motivo = validar(mensagem);
+                    if (motivo == null) {
+                        // id e data de criação exportados são mantidos, para que referências externas continuem valendo
+                        lote.add(mensagem);
+                        linhasDoLote.add(numeroLinha);
+                    }
+                } catch (JsonProcessingException e) {
+                    motivo = "JSON inválido: " + e.getOriginalMessage();
+                }
+
+                if (motivo != null) {
+                    rejeicoes.adicionar(numeroLinha, motivo);
+                }
+                if (lote.size() == tamanhoLote) {
+                    aceitas += persistirImportadas(lote, linhasDoLote, rejeicoes);
+                    lote = new ArrayList<>(tamanhoLote);
+                    linhasDoLote = new ArrayList<>(tamanhoLote);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!lote.isEmpty()) {
+            aceitas += persistirImportadas(lote, linhasDoLote, rejeicoes);
+        }
+        return new ResultadoImportacao(aceitas, rejeicoes.total, rejeicoes.listadas);
+    }
+
+    /**
+     * Persiste o lote, rejeitando as mensagens cujo id já está gravado ou se repete no próprio lote.
+     */
+    private int persistirImportadas(List<Mensagem> lote, List<Long> linhas, Rejeicoes rejeicoes) {
+        var ids = lote.stream().map(Mensagem::getId).filter(Objects::nonNull).toList();
+        var existentes = new HashSet<UUID>();
+        if (!ids.isEmpty()) {
+            // o lote anterior da mesma importação pode ainda não ter chegado à réplica
+            try (var escopo = DestinoLeitura.primario()) {
+                mensagemRepository.findAllById(ids).forEach(mensagem -> existentes.add(mensagem.getId()));
+            }
+        }
+        var novas = new ArrayList<Mensagem>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            var id = lote.get(i).getId();
+            if (id != null && !existentes.add(id)) {
+                rejeicoes.adicionar(linhas.get(i), "já existe uma mensagem com o id " + id);
+            } else {
+                novas.add(lote.get(i));
+            }
+        }
+        if (novas.isEmpty()) {
+            return 0;
+        }
+
+        var persistidas = mensagemRepository.persistirEmLote(novas);
+        persistidas.forEach(mensagem -> {
+            indiceBusca.indexar(mensagem.getId(), mensagem.getConteudo());
+            rankingGostei.registrar(mensagem.getId(), mensagem.getGostei());
+        });
+        contadorMensagens.ajustar(persistidas.size());
+        return persistidas.size();
+    }
+
+    /**
+     * Conta todas as linhas rejeitadas e detalha só as primeiras.
+     */
+    private static final class Rejeicoes {
+        private final int maximoListadas;
+        private final List<ResultadoImportacao.Rejeicao> listadas = new ArrayList<>();
+        private long total;
+
+        private Rejeicoes(int maximoListadas) {
+            this.maximoListadas = maximoListadas;
+        }
+
+        private void adicionar(long linha, String motivo) {
+            total++;
+            if (listadas.size() < maximoListadas) {
+                listadas.add(new ResultadoImportacao.Rejeicao(linha, motivo));
+            }
+        }
+    }
+
+    private void validarLote(List<Mensagem> mensagens) {
+        var maximo = mensagemProperties.getLote().getMaximoItens();
+        if (mensagens.size() > maximo) {
+            throw new IllegalArgumentException("quantidade de mensagens excede o máximo de " + maximo);
+        }
+        var invalidas = new ArrayList<MensagemInvalida>();
+        for (int i = 0; i < mensagens.size(); i++) {
+            var motivo = mensagens.get(i) == null ? "mensagem ausente" : validar(mensagens.get(i));
+            if (motivo != null) {
+                invalidas.add(new MensagemInvalida(i, motivo));
+            }
+        }
+        if (!invalidas.isEmpty()) {
+            throw new MensagensInvalidasException(invalidas);
+        }
+    }
+
+    // a alteração é um update em massa, sem a validação que o Hibernate faz ao persistir
+    private void exigirValida(Mensagem mensagem) {
+        var motivo = validar(mensagem);
+        if (motivo != null) {
+            throw new IllegalArgumentException(motivo);
+        }
+    }
+
+    private String validar(Mensagem mensagem) {
+        if (mensagem == null) {
+            return "linha não contém uma mensagem";
+        }
+        var violacoes = validator.validate(mensagem);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Mensagem mesclarGosteiPendente(Mensagem mensagem) {
+        var pendente = gosteiContador.pendente(mensagem.getId());
+        if (pendente == 0) {
+            return mensagem;
+        }
+        return mensagem.toBuilder()
+                .gostei(mensagem.getGostei() + (int) pendente)
+                .build();
+    }
+
+    private MensagemResumo mesclarGosteiPendente(MensagemResumo mensagem) {
+        var pendente = gosteiContador.pendente(mensagem.id());
+        if (pendente == 0) {
+            return mensagem;
+        }
+        return mensagem.comGostei(mensagem.gostei() + (int) pendente);
     }
 }
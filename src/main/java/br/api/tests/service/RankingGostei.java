@@ -0,0 +1,205 @@
+package br.api.tests.service;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.OrdenacaoMensagens;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.repository.MensagemArmazenamento;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mensagens com mais gosteis, mantidas em memória numa skip list ordenada por gostei e id. Guarda mais posições
+ * do que o máximo consultável para que remoções não abram buracos no topo; a leitura percorre a skip list sem
+ * bloqueio e sem ir ao banco.
+ */
+@Component
+@RequiredArgsConstructor
+public class RankingGostei {
+
+    private static final Comparator<PosicaoRanking> ORDEM = Comparator.comparingInt(PosicaoRanking::gostei)
+            .thenComparing(PosicaoRanking::id)
+            .reversed();
+
+    private final MensagemArmazenamento mensagemRepository;
+    private final MensagemProperties mensagemProperties;
+    private final GosteiContador gosteiContador;
+
+    private final ReentrantLock escrita = new ReentrantLock();
+    // trocados inteiros ao fim de cada semeadura; fora dela, só alterados com o bloqueio de escrita
+    private volatile ConcurrentSkipListSet<PosicaoRanking> posicoes = new ConcurrentSkipListSet<>(ORDEM);
+    private Map<UUID, PosicaoRanking> porId = new HashMap<>();
+    // indica que há mensagens fora do ranking; enquanto não houver, ele contém todas
+    private volatile boolean truncado;
+    // alterações feitas enquanto uma semeadura lê o banco, reaplicadas sobre o resultado antes da troca
+    private volatile boolean semeando;
+    private final Map<UUID, PosicaoRanking> registradasNaSemeadura = new HashMap<>();
+    private final Set<UUID> removidasNaSemeadura = new HashSet<>();
+
+    /**
+     * Carrega as mais curtidas do banco somando os gosteis ainda pendentes no {@link GosteiContador}, para que o
+     * ranking refeito após uma remoção não fique atrás dos incrementos já aceitos. O ranking novo é montado à parte e
+     * trocado de uma vez; os registros e remoções que chegam durante a leitura são reaplicados sobre ele, porque a
+     * leitura pode não tê-los visto.
+     */
+    @PostConstruct
+    public synchronized void semear() {
+        var capacidade = mensagemProperties.getRanking().getCapacidade();
+        escrita.lock();
+        try {
+            semeando = true;
+        } finally {
+            escrita.unlock();
+        }
+        try {
+            var maisCurtidas = gosteiContador.lerConsistente(() -> mensagemRepository.buscarFatia(
+                            PageRequest.of(0, capacidade, OrdenacaoMensagens.GOSTEI.ordenar(Sort.Direction.DESC)))
+                    .map(this::posicaoComPendentes));
+            var novasPosicoes = new ConcurrentSkipListSet<PosicaoRanking>(ORDEM);
+            var novoPorId = new HashMap<UUID, PosicaoRanking>();
+            for (var posicao : maisCurtidas) {
+                novasPosicoes.add(posicao);
+                novoPorId.put(posicao.id(), posicao);
+            }
+            var novoTruncado = maisCurtidas.hasNext();
+
+            escrita.lock();
+            try {
+                for (var id : removidasNaSemeadura) {
+                    var anterior = novoPorId.remove(id);
+                    if (anterior != null) {
+                        novasPosicoes.remove(anterior);
+                    }
+                }
+                for (var posicao : registradasNaSemeadura.values()) {
+                    novoTruncado |= incluir(novasPosicoes, novoPorId, posicao, capacidade);
+                }
+                posicoes = novasPosicoes;
+                porId = novoPorId;
+                truncado = novoTruncado;
+            } finally {
+                escrita.unlock();
+            }
+        } finally {
+            escrita.lock();
+            try {
+                semeando = false;
+                registradasNaSemeadura.clear();
+                removidasNaSemeadura.clear();
+            } finally {
+                escrita.unlock();
+            }
+        }
+    }
+
+    /**
+     * Registra a quantidade de gosteis de uma mensagem. Como gosteis só aumentam, um valor menor do que o já
+     * registrado (lido antes de um incremento concorrente) é ignorado.
+     */
+    public void registrar(UUID id, int gostei) {
+        var capacidade = mensagemProperties.getRanking().getCapacidade();
+        var posicao = new PosicaoRanking(id, gostei);
+        // durante a semeadura o último da skip list atual não diz nada sobre o ranking que vai substituí-la
+        if (!semeando && abaixoDoUltimo(posicao, capacidade)) {
+            truncado = true;
+            return;
+        }
+        escrita.lock();
+        try {
+            if (semeando) {
+                registradasNaSemeadura.merge(id, posicao,
+                        (registrada, nova) -> registrada.gostei() >= nova.gostei() ? registrada : nova);
+            }
+            if (incluir(posicoes, porId, posicao, capacidade)) {
+                truncado = true;
+            }
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    public void remover(UUID id) {
+        escrita.lock();
+        try {
+            if (semeando) {
+                registradasNaSemeadura.remove(id);
+                removidasNaSemeadura.add(id);
+            }
+            var anterior = porId.remove(id);
+            if (anterior != null) {
+                posicoes.remove(anterior);
+            }
+        } finally {
+            escrita.unlock();
+        }
+        // as mensagens que ficaram de fora têm menos gosteis do que as restantes, então o topo só fica
+        // incompleto quando sobram menos posições do que o máximo consultável; uma semeadura em andamento já
+        // vai refazê-lo
+        if (!semeando && truncado && posicoes.size() < mensagemProperties.getRanking().getMaximo()) {
+            semear();
+        }
+    }
+
+    public List<PosicaoRanking> topo(int quantidade) {
+        var topo = new ArrayList<PosicaoRanking>(quantidade);
+        for (var posicao : posicoes) {
+            if (topo.size() == quantidade) {
+                break;
+            }
+            topo.add(posicao);
+        }
+        return topo;
+    }
+
+    /**
+     * Inclui a posição, a menos que já haja um valor maior para a mesma mensagem, e descarta as menos curtidas além
+     * da capacidade. Indica se alguma foi descartada.
+     */
+    private static boolean incluir(ConcurrentSkipListSet<PosicaoRanking> posicoes,
+                                   Map<UUID, PosicaoRanking> porId,
+                                   PosicaoRanking posicao,
+                                   int capacidade) {
+        var anterior = porId.get(posicao.id());
+        if (anterior != null) {
+            if (anterior.gostei() >= posicao.gostei()) {
+                return false;
+            }
+            posicoes.remove(anterior);
+        }
+        posicoes.add(posicao);
+        porId.put(posicao.id(), posicao);
+        var descartou = false;
+        while (posicoes.size() > capacidade) {
+            porId.remove(posicoes.pollLast().id());
+            descartou = true;
+        }
+        return descartou;
+    }
+
+    private PosicaoRanking posicaoComPendentes(MensagemResumo mensagem) {
+        return new PosicaoRanking(mensagem.id(), mensagem.gostei() + (int) gosteiContador.pendente(mensagem.id()));
+    }
+
+    private boolean abaixoDoUltimo(PosicaoRanking posicao, int capacidade) {
+        var atuais = posicoes;
+        if (atuais.size() < capacidade) {
+            return false;
+        }
+        var ultimas = atuais.descendingIterator();
+        return ultimas.hasNext() && ORDEM.compare(posicao, ultimas.next()) > 0;
+    }
+}
@@ -0,0 +1,41 @@
+package br.api.tests.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Quebra textos em termos para o índice de busca: remove acentos, passa para minúsculas, separa por
+ * qualquer caractere que não seja letra ou dígito e descarta termos de uma letra e palavras vazias.
+ */
+final class Tokenizador {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+            "a", "ao", "aos", "as", "com", "da", "das", "de", "do", "dos", "e", "ela", "ele", "em", "entre",
+            "essa", "esse", "esta", "este", "eu", "isso", "mais", "mas", "na", "nas", "nao", "no", "nos", "o",
+            "os", "ou", "para", "pela", "pelo", "por", "que", "se", "sem", "seu", "sua", "um", "uma");
+
+    private Tokenizador() {
+    }
+
+    static List<String> tokenizar(String texto) {
+        var termos = new ArrayList<String>();
+        if (texto == null || texto.isBlank()) {
+            return termos;
+        }
+        var normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (var termo : SEPARADORES.split(normalizado)) {
+            if (termo.length() > 1 && !PALAVRAS_VAZIAS.contains(termo)) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
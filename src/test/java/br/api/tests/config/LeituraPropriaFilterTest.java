@@ -0,0 +1,29 @@
+package br.api.tests.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeituraPropriaFilterTest {
+
+    @Test
+    void deveArredondarParaCimaJanelaFracionada() throws Exception {
+        assertThat(maxAgeDoCookie(Duration.ofMillis(500))).isEqualTo(1);
+        assertThat(maxAgeDoCookie(Duration.ofMillis(1_200))).isEqualTo(2);
+        assertThat(maxAgeDoCookie(Duration.ofSeconds(5))).isEqualTo(5);
+    }
+
+    private static int maxAgeDoCookie(Duration janela) throws Exception {
+        var response = new MockHttpServletResponse();
+
+        new LeituraPropriaFilter(janela)
+                .doFilter(new MockHttpServletRequest("POST", "/mensagens"), response, new MockFilterChain());
+
+        return response.getCookie(LeituraPropriaFilter.COOKIE).getMaxAge();
+    }
+}
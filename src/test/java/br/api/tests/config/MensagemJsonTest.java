@@ -0,0 +1,124 @@
+package br.api.tests.config;
+
+import br.api.tests.model.Mensagem;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MensagemJsonTest {
+
+    private final ObjectMapper anotacoes = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper manual = Jackson2ObjectMapperBuilder.json()
+            .serializers(new MensagemJson.Serializador())
+            .deserializerByType(Mensagem.class, new MensagemJson.Desserializador())
+            .build();
+
+    @Nested
+    class Serializar {
+        @ParameterizedTest
+        @ValueSource(strings = {"2024-05-17T13:45:12.123456789", "0001-01-01T00:00", "9999-12-31T23:59:59.99999"})
+        void deveProduzirOMesmoJsonDasAnotacoes(String data) throws Exception {
+            var mensagem = mensagem(LocalDateTime.parse(data));
+
+            assertThat(manual.writeValueAsString(mensagem)).isEqualTo(anotacoes.writeValueAsString(mensagem));
+        }
+
+        @Test
+        void deveEscreverCamposNulos() throws Exception {
+            var mensagem = Mensagem.builder().build();
+
+            assertThat(manual.writeValueAsString(mensagem)).isEqualTo(anotacoes.writeValueAsString(mensagem));
+        }
+
+        @Test
+        void deveRecorrerAoFormatadorParaAnosComMaisDeQuatroDigitos() throws Exception {
+            var mensagem = mensagem(LocalDateTime.of(12345, 1, 2, 3, 4, 5));
+
+            assertThat(manual.writeValueAsString(mensagem)).isEqualTo(anotacoes.writeValueAsString(mensagem));
+        }
+    }
+
+    @Nested
+    class Desserializar {
+        @Test
+        void deveLerOMesmoQueAsAnotacoes() throws Exception {
+            var json = anotacoes.writeValueAsString(mensagem(LocalDateTime.of(2024, 5, 17, 13, 45, 12, 123_450_000)));
+
+            assertThat(manual.readValue(json, Mensagem.class)).isEqualTo(anotacoes.readValue(json, Mensagem.class));
+        }
+
+        @Test
+        void deveIgnorarVersaoECamposDesconhecidos() throws Exception {
+            var json = "{\"usuario\":\"joe\",\"versao\":7,\"extra\":{\"a\":[1,2]},\"conteudo\":\"xpto\"}";
+
+            var mensagem = manual.readValue(json, Mensagem.class);
+
+            assertThat(mensagem.getUsuario()).isEqualTo("joe");
+            assertThat(mensagem.getConteudo()).isEqualTo("xpto");
+            assertThat(mensagem.getVersao()).isNull();
+            assertThat(mensagem.getGostei()).isZero();
+        }
+
+        @Test
+        void deveRejeitarCampoDesconhecidoQuandoConfigurado() {
+            var estrito = manual.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+            assertThatThrownBy(() -> estrito.readValue("{\"extra\":1}", Mensagem.class))
+                    .isInstanceOf(UnrecognizedPropertyException.class);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"2024-13-01 00:00:00.00000", "2024-05-17T13:45:12", "2024-05-17 13:45:1x.00000"})
+        void deveRejeitarDataInvalida(String data) {
+            var json = "{\"dataCriacao\":\"" + data + "\"}";
+
+            assertThatThrownBy(() -> manual.readValue(json, Mensagem.class))
+                    .isInstanceOf(InvalidFormatException.class);
+        }
+
+        @Test
+        void deveConverterEscalaresEmTextoComoAsAnotacoes() throws Exception {
+            var json = "{\"usuario\":42,\"conteudo\":true}";
+
+            assertThat(manual.readValue(json, Mensagem.class)).isEqualTo(anotacoes.readValue(json, Mensagem.class));
+        }
+
+        @Test
+        void deveRejeitarObjetoEmCampoDeTexto() {
+            assertThatThrownBy(() -> manual.readValue("{\"usuario\":{\"a\":1}}", Mensagem.class))
+                    .isInstanceOf(MismatchedInputException.class);
+        }
+
+        @Test
+        void deveRejeitarIdInvalido() {
+            assertThatThrownBy(() -> manual.readValue("{\"id\":\"nao-e-um-uuid\"}", Mensagem.class))
+                    .isInstanceOf(InvalidFormatException.class);
+        }
+    }
+
+    private static Mensagem mensagem(LocalDateTime data) {
+        return Mensagem.builder()
+                .id(UUID.randomUUID())
+                .usuario("joe")
+                .conteudo("xpto \"test\" çã")
+                .dataCriacao(data)
+                .dataAlteracao(data)
+                .gostei(3)
+                .versao(2L)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package br.api.tests.config;
+
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:clean.sql", "classpath:data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class MetricasIT {
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    public void setup() {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        when().get("/mensagens").then().statusCode(HttpStatus.OK.value());
+    }
+
+    @Nested
+    class Metricas {
+        @Test
+        void deveMedirConsultasPorRequisicao() {
+            given()
+                    .queryParam("tag", "uri:/mensagens")
+                    .when()
+                    .get("/actuator/metrics/mensagens.requisicao.consultas")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("measurements.find { it.statistic == 'TOTAL' }.value", greaterThan(0f));
+        }
+
+        @Test
+        void deveMedirMetodosDoServico() {
+            given()
+                    .queryParam("tag", "method:listasMensagens")
+                    .when()
+                    .get("/actuator/metrics/mensagens.servico")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("availableTags.tag", hasItem("class"));
+        }
+
+        @Test
+        void deveExporEstatisticasDoHibernateEDoRepositorio() {
+            when()
+                    .get("/actuator/metrics/hibernate.statements.prepared")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("measurements[0].value", greaterThan(0f));
+            when()
+                    .get("/actuator/metrics/spring.data.repository.invocations")
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+    }
+}
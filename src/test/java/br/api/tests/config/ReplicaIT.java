@@ -0,0 +1,153 @@
+package br.api.tests.config;
+
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
+import io.restassured.http.ContentType;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "mensagens.replica.habilitada=true",
+        "mensagens.replica.url=" + ReplicaIT.URL_REPLICA,
+        "mensagens.replica.usuario=root",
+        "mensagens.replica.senha="
+})
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:clean.sql", "classpath:data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ReplicaIT {
+
+    static final String URL_REPLICA =
+            "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;INIT=RUNSCRIPT FROM 'classpath:mensagem.sql'";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        executarNaReplica("DELETE FROM mensagem");
+    }
+
+    private static void executarNaReplica(String sql) throws SQLException {
+        try (var conexao = DriverManager.getConnection(URL_REPLICA, "root", "");
+             var comando = conexao.createStatement()) {
+            comando.execute(sql);
+        }
+    }
+
+    private static String criarMensagem(String conteudo) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"usuario\": \"joe\", \"conteudo\": \"" + conteudo + "\"}")
+                .when()
+                .post("/mensagens")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+    }
+
+    @Nested
+    class Roteamento {
+
+        @Test
+        void deveListarDaReplicaSemEscritaRecente() throws SQLException {
+            executarNaReplica("""
+                    INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei)
+                    VALUES ('%s', 'ana', 'somente na réplica', CURRENT_TIMESTAMP, 0)""".formatted(UUID.randomUUID()));
+
+            when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("content.conteudo", hasItem("somente na réplica"))
+                    .body("content.conteudo", not(hasItem("Mensagem one")));
+        }
+
+        @Test
+        void deveEscreverNoPrimario() {
+            criarMensagem("escrita no primário");
+
+            when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("content.conteudo", not(hasItem("escrita no primário")));
+        }
+
+        @Test
+        void deveLerDoPrimarioDentroDaJanelaDeLeituraPropria() {
+            var cookie = given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"usuario\": \"joe\", \"conteudo\": \"leitura própria\"}")
+                    .when()
+                    .post("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract().cookie(LeituraPropriaFilter.COOKIE);
+
+            given()
+                    .cookie(LeituraPropriaFilter.COOKIE, cookie)
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("content.conteudo", hasItem("leitura própria"));
+        }
+
+        @Test
+        void deveLerDoPrimarioQuandoPedidoPeloCabecalho() {
+            criarMensagem("leitura pelo cabeçalho");
+
+            given()
+                    .header(LeituraPropriaFilter.CABECALHO, "1")
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("content.conteudo", hasItem("leitura pelo cabeçalho"));
+        }
+
+        @Test
+        void deveLiberarConexaoAoFimDeCadaTransacao() {
+            assertThat(entityManagerFactory.getProperties())
+                    .containsEntry(AvailableSettings.CONNECTION_HANDLING,
+                            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+        }
+
+        @Test
+        void deveCarregarCacheDoPrimario() {
+            var id = criarMensagem("cache a partir do primário");
+
+            when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("conteudo", equalTo("cache a partir do primário"));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package br.api.tests.config;
+
+import br.api.tests.model.Mensagem;
+import br.api.tests.repository.MensagemRepository;
+import br.api.tests.service.GosteiContadorAgregado;
+import br.api.tests.service.MensagemService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mensagens.segundo-nivel.habilitado=true",
+        "mensagens.segundo-nivel.paginas=1",
+        "mensagens.gostei.agregacao=true",
+        "mensagens.gostei.intervalo=1h",
+        "mensagens.gostei.limite=1000000"
+})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:clean.sql", "classpath:data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class SegundoNivelIT {
+
+    private static final UUID ID = UUID.fromString("bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d");
+    private static final PageRequest PRIMEIRA_PAGINA = PageRequest.of(0, 10, Sort.by("usuario"));
+
+    @Autowired
+    private MensagemService mensagemService;
+
+    @Autowired
+    private MensagemRepository mensagemRepository;
+
+    @Autowired
+    private GosteiContadorAgregado gosteiContador;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setup() {
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        // o @Sql grava direto no banco, sem passar pelo Hibernate
+        sessionFactory.getCache().evictAllRegions();
+        estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+    }
+
+    private Mensagem buscar() {
+        return mensagemRepository.findById(ID).orElseThrow();
+    }
+
+    private boolean emCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache().contains(Mensagem.class, ID);
+    }
+
+    @Nested
+    class Entidades {
+
+        @Test
+        void deveLerMensagemRepetidaDoCacheSemConsultarBanco() {
+            // Arrange
+            buscar();
+            var instrucoesAntes = estatisticas.getPrepareStatementCount();
+
+            // Act
+            var mensagemObtida = buscar();
+
+            // Assert
+            assertThat(mensagemObtida.getConteudo()).isEqualTo("Mensagem one");
+            assertThat(emCache()).isTrue();
+            assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(instrucoesAntes);
+        }
+
+        @Test
+        void deveDescartarMensagemAlterada() {
+            // Arrange
+            buscar();
+            var mensagemAtualizada = Mensagem.builder().usuario("James").conteudo("alterada").build();
+
+            // Act
+            mensagemService.alterarMensagem(ID, mensagemAtualizada);
+
+            // Assert
+            assertThat(buscar().getConteudo()).isEqualTo("alterada");
+        }
+
+        @Test
+        void deveDescartarMensagemRemovida() {
+            // Arrange
+            buscar();
+
+            // Act
+            mensagemService.removerMensagem(ID);
+
+            // Assert
+            assertThat(emCache()).isFalse();
+            assertThat(mensagemRepository.findById(ID)).isEmpty();
+        }
+
+        @Test
+        void deveDescartarMensagemAposUpdateEmMassa() {
+            // Arrange
+            buscar();
+
+            // Act
+            mensagemRepository.incrementarGostei(ID);
+
+            // Assert
+            assertThat(emCache()).isFalse();
+            assertThat(buscar().getGostei()).isEqualTo(1);
+        }
+
+        @Test
+        void deveDescartarMensagemAposDescargaDosGosteis() {
+            // Arrange
+            buscar();
+            mensagemService.incrementarGostei(ID);
+
+            // Act
+            gosteiContador.descarregar();
+
+            // Assert
+            assertThat(emCache()).isFalse();
+            assertThat(buscar().getGostei()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Consultas {
+
+        @Test
+        void deveResponderPrimeiraPaginaRepetidaDoCache() {
+            // Arrange
+            mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+            var instrucoesAntes = estatisticas.getPrepareStatementCount();
+
+            // Act
+            var paginaObtida = mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Assert
+            assertThat(paginaObtida.getContent()).hasSize(3);
+            assertThat(paginaObtida.getTotalElements()).isEqualTo(3);
+            assertThat(estatisticas.getQueryCacheHitCount()).isPositive();
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(instrucoesAntes);
+        }
+
+        @Test
+        void naoDeveGuardarPaginasAlemDoLimite() {
+            // Arrange
+            var segundaPagina = PageRequest.of(1, 2, Sort.by("usuario"));
+            mensagemService.listasMensagens(segundaPagina);
+
+            // Act
+            mensagemService.listasMensagens(segundaPagina);
+
+            // Assert
+            assertThat(estatisticas.getQueryCachePutCount()).isZero();
+            assertThat(estatisticas.getQueryCacheHitCount()).isZero();
+        }
+
+        @Test
+        void deveDescartarPaginaAposAlteracao() {
+            // Arrange
+            mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+            var mensagemAtualizada = Mensagem.builder().usuario("James").conteudo("alterada").build();
+
+            // Act
+            mensagemService.alterarMensagem(ID, mensagemAtualizada);
+            var paginaObtida = mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Assert
+            assertThat(paginaObtida.getContent()).extracting("conteudo").contains("alterada");
+        }
+
+        @Test
+        void deveDescartarPaginaAposRemocao() {
+            // Arrange
+            mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Act
+            mensagemService.removerMensagem(ID);
+            var paginaObtida = mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Assert
+            assertThat(paginaObtida.getContent()).extracting("id").doesNotContain(ID);
+            assertThat(paginaObtida.getTotalElements()).isEqualTo(2);
+        }
+
+        @Test
+        void deveDescartarPaginaAposDescargaDosGosteis() {
+            // Arrange
+            mensagemService.incrementarGostei(ID);
+            mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Act
+            gosteiContador.descarregar();
+            var paginaObtida = mensagemService.listasMensagens(PRIMEIRA_PAGINA);
+
+            // Assert
+            assertThat(paginaObtida.getContent())
+                    .filteredOn(resumo -> resumo.id().equals(ID))
+                    .extracting("gostei")
+                    .containsExactly(1);
+        }
+    }
+}
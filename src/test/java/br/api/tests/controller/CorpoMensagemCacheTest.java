@@ -0,0 +1,56 @@
+package br.api.tests.controller;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.utils.MensagemHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorpoMensagemCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Nested
+    class Obter {
+        @Test
+        void deveReaproveitarOCorpoEnquantoVersaoEGosteiNaoMudam() throws Exception {
+            var cache = cache(true);
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            mensagem.setVersao(0L);
+
+            var corpo = cache.obter(mensagem);
+
+            assertThat(corpo).isEqualTo(objectMapper.writeValueAsBytes(mensagem));
+            assertThat(cache.obter(mensagem.toBuilder().build())).isSameAs(corpo);
+        }
+
+        @Test
+        void deveSerializarDeNovoQuandoGosteiOuVersaoMudam() throws Exception {
+            var cache = cache(true);
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            mensagem.setVersao(0L);
+            cache.obter(mensagem);
+
+            var curtida = mensagem.toBuilder().gostei(1).build();
+            var alterada = mensagem.toBuilder().versao(1L).conteudo("alterado").build();
+
+            assertThat(cache.obter(curtida)).isEqualTo(objectMapper.writeValueAsBytes(curtida));
+            assertThat(cache.obter(alterada)).isEqualTo(objectMapper.writeValueAsBytes(alterada));
+        }
+
+        @Test
+        void deveDevolverNuloQuandoDesabilitado() {
+            assertThat(cache(false).obter(MensagemHelper.gerarMensagemCompleta())).isNull();
+        }
+    }
+
+    private CorpoMensagemCache cache(boolean habilitado) {
+        var mensagemProperties = new MensagemProperties();
+        mensagemProperties.getJson().setCacheCorpos(habilitado);
+        return new CorpoMensagemCache(mensagemProperties, objectMapper, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,179 @@
+package br.api.tests.controller;
+
+import br.api.tests.model.Mensagem;
+import br.api.tests.service.IndiceBusca;
+import br.api.tests.service.MensagemCache;
+import br.api.tests.utils.MensagemHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:clean.sql", "classpath:data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class MensagemControllerCborIT {
+
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MensagemCache mensagemCache;
+
+    @Autowired
+    private IndiceBusca indiceBusca;
+
+    @BeforeEach
+    public void setup() {
+        mensagemCache.invalidarTodas();
+        indiceBusca.reconstruir();
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+    }
+
+    @Nested
+    class RegistrarMensagem {
+        @Test
+        void devePermitirRegistrarMensagemEmCbor() throws Exception {
+            var corpo = given()
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .body(cbor.writeValueAsBytes(MensagemHelper.gerarMensagem()))
+                    .when()
+                    .post("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .extract().asByteArray();
+
+            var mensagem = cbor.readValue(corpo, Mensagem.class);
+            assertThat(mensagem.getId()).isNotNull();
+            assertThat(mensagem.getUsuario()).isEqualTo("joe");
+            assertThat(mensagem.getDataCriacao()).isNotNull();
+        }
+
+        @Test
+        void devePermitirRegistrarMensagensEmLoteEmCbor() throws Exception {
+            var lote = List.of(MensagemHelper.gerarMensagem(), MensagemHelper.gerarMensagem());
+            var corpo = given()
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .body(cbor.writeValueAsBytes(lote))
+                    .when()
+                    .post("/mensagens/batch")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract().asByteArray();
+
+            assertThat(cbor.readValue(corpo, UUID[].class)).hasSize(2);
+        }
+
+        @Test
+        void deveIgnorarCharsetNoContentTypeCbor() throws Exception {
+            given()
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE + ";charset=ISO-8859-1")
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .body(cbor.writeValueAsBytes(MensagemHelper.gerarMensagem()))
+                    .when()
+                    .post("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value());
+        }
+
+        @Test
+        void deveRejeitarCorpoCborInvalido() {
+            given()
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .body(new byte[]{(byte) 0xff, (byte) 0xff, 0x01})
+                    .when()
+                    .post("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+        }
+    }
+
+    @Nested
+    class BuscarMensagem {
+        @Test
+        void deveNegociarCborOuJsonPeloAccept() throws Exception {
+            var id = "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d";
+            var corpo = given()
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .extract().asByteArray();
+            assertThat(cbor.readValue(corpo, Mensagem.class).getId()).hasToString(id);
+
+            given()
+                    .when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_JSON_VALUE);
+        }
+
+        @Test
+        void devePreferirJsonQuandoAcceptDerMaisQualidadeAoJson() {
+            given()
+                    .accept("application/cbor;q=0.5, application/json")
+                    .when()
+                    .get("/mensagens/{id}", "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_JSON_VALUE);
+        }
+
+        @Test
+        void deveResponderErroComoTextoQuandoClientePedirCbor() {
+            given()
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .when()
+                    .get("/mensagens/{id}", "nao-e-um-uuid")
+                    .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .contentType(MediaType.TEXT_PLAIN_VALUE);
+        }
+    }
+
+    @Nested
+    class ListarMensagem {
+        @Test
+        void devePermitirListarMensagensEmCbor() throws Exception {
+            var corpo = given()
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .queryParam("size", 2)
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                    .extract().asByteArray();
+
+            var pagina = cbor.readTree(corpo);
+            assertThat(pagina.get("content")).hasSize(2);
+            assertThat(pagina.get("totalElements").asLong()).isEqualTo(3);
+        }
+    }
+}
@@ -1,25 +1,34 @@
 package br.api.tests.controller;
 
 import br.api.tests.model.Mensagem;
+import br.api.tests.service.ContadorMensagens;
+import br.api.tests.service.IndiceBusca;
+import br.api.tests.service.MensagemCache;
+import br.api.tests.service.RankingGostei;
 import br.api.tests.utils.MensagemHelper;
 import io.qameta.allure.restassured.AllureRestAssured;
 import io.restassured.RestAssured;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.List;
 import java.util.UUID;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
 import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 
@@ -32,8 +41,24 @@ public class MensagemControllerIT {
     @LocalServerPort
     private int port;
 
+    @Autowired
+    private MensagemCache mensagemCache;
+
+    @Autowired
+    private ContadorMensagens contadorMensagens;
+
+    @Autowired
+    private IndiceBusca indiceBusca;
+
+    @Autowired
+    private RankingGostei rankingGostei;
+
     @BeforeEach
     public void setup() {
+        // o @Sql recria os dados direto no banco, sem passar pelo serviço que invalidaria o cache
+        mensagemCache.invalidarTodas();
+        indiceBusca.reconstruir();
+        rankingGostei.semear();
         RestAssured.port = port;
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
     }
@@ -85,6 +110,24 @@ public class MensagemControllerIT {
 
         }
 
+        @Test
+        void deveRetornarNaoModificadoQuandoEtagCorresponder() {
+            var id = "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d";
+            var etag = when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract().header(HttpHeaders.ETAG);
+
+            given()
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.NOT_MODIFIED.value())
+                    .header(HttpHeaders.ETAG, etag);
+        }
+
         @Test
         void deveGerarExecaoQuandoBuscarMensagemIdNaoExiste() {
             var id = "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9";
@@ -95,6 +138,100 @@ public class MensagemControllerIT {
         }
     }
 
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagensPorIds() {
+            given()
+                    .queryParam("ids", "1f1f59fd-bd45-4515-b8a9-e8577a37b0d7,0b4c2f6e-0000-4000-8000-000000000000,"
+                            + "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d")
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("mensagens.id", contains("1f1f59fd-bd45-4515-b8a9-e8577a37b0d7",
+                            "bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d"))
+                    .body("naoEncontrados", contains("0b4c2f6e-0000-4000-8000-000000000000"));
+        }
+    }
+
+    @Nested
+    class BuscarPorTexto {
+        @Test
+        void devePermitirBuscarMensagensPorTexto() {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .body(Mensagem.builder().usuario("Ana").conteudo("Reunião às três").build())
+                    .post("/mensagens");
+
+            given()
+                    .queryParam("q", "reuniao")
+                    .when()
+                    .get("/mensagens/search")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("conteudo", contains("Reunião às três"));
+
+            given()
+                    .queryParam("q", "xyzzy")
+                    .when()
+                    .get("/mensagens/search")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("size()", equalTo(0));
+        }
+
+        @Test
+        void deveEncontrarMensagensExistentesAoReconstruirOIndice() {
+            given()
+                    .queryParam("q", "mensagem two")
+                    .when()
+                    .get("/mensagens/search")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("[0].id", equalTo("4ff2f92d-c45d-4b5b-b31a-dbd552234574"));
+        }
+    }
+
+    @Nested
+    class ListarMaisCurtidas {
+        @Test
+        void devePermitirListarMaisCurtidas() {
+            var maisCurtida = "4ff2f92d-c45d-4b5b-b31a-dbd552234574";
+            var segunda = "1f1f59fd-bd45-4515-b8a9-e8577a37b0d7";
+            when().post("/mensagens/{id}/gostei", maisCurtida);
+            when().post("/mensagens/{id}/gostei", maisCurtida);
+            when().post("/mensagens/{id}/gostei", segunda);
+
+            given()
+                    .queryParam("n", 2)
+                    .when()
+                    .get("/mensagens/top")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("id", contains(maisCurtida, segunda))
+                    .body("gostei", contains(2, 1));
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        void devePermitirExportarMensagensEmNdjson() {
+            var corpo = when()
+                    .get("/mensagens/export")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                    .extract().asString();
+
+            assertThat(corpo.lines())
+                    .hasSize(3)
+                    .allSatisfy(linha -> assertThat(linha).startsWith("{").endsWith("}"))
+                    .anySatisfy(linha -> assertThat(linha).contains("bd0e31fd-58b7-44e0-bbff-cc0aaf817b9d"));
+        }
+    }
+
     @Nested
     class AlterarMensagem {
         @Test
@@ -116,6 +253,128 @@ public class MensagemControllerIT {
                     .body(matchesJsonSchemaInClasspath("schemas/mensagem.schema.json"));
         }
 
+        @Test
+        void deveGerarExecaoQuandoIfMatchEstiverDesatualizado() {
+            var id = UUID.fromString("4ff2f92d-c45d-4b5b-b31a-dbd552234574");
+            var etag = when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .extract().header(HttpHeaders.ETAG);
+            var mensagem = Mensagem.builder()
+                    .id(id)
+                    .usuario("Maria")
+                    .conteudo("Mensagem 02")
+                    .build();
+
+            var novaEtag = given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, etag)
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract().header(HttpHeaders.ETAG);
+            assertThat(novaEtag).isNotEqualTo(etag);
+
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, etag)
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchTiverGosteiDesatualizado() {
+            var id = UUID.fromString("4ff2f92d-c45d-4b5b-b31a-dbd552234574");
+            var etag = when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .extract().header(HttpHeaders.ETAG);
+            var mensagem = Mensagem.builder()
+                    .id(id)
+                    .usuario("Maria")
+                    .conteudo("Mensagem 02")
+                    .build();
+            when()
+                    .post("/mensagens/{id}/gostei", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, etag)
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchForMalformado() {
+            var id = UUID.fromString("4ff2f92d-c45d-4b5b-b31a-dbd552234574");
+            var mensagem = Mensagem.builder()
+                    .id(id)
+                    .usuario("Maria")
+                    .conteudo("Mensagem 02")
+                    .build();
+
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, "\"0")
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        }
+
+        @Test
+        void devePermitirAlterarMensagemQuandoQualquerEtagDoIfMatchCorresponder() {
+            var id = UUID.fromString("4ff2f92d-c45d-4b5b-b31a-dbd552234574");
+            var etag = when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .extract().header(HttpHeaders.ETAG);
+            var mensagem = Mensagem.builder()
+                    .id(id)
+                    .usuario("Maria")
+                    .conteudo("Mensagem 02")
+                    .build();
+
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, "\"999-0\", " + etag)
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchCuringaEMensagemNaoExistir() {
+            var id = UUID.fromString("c1a4f1a6-5d0e-4f3b-9a51-0f2a6d1e7b90");
+            var mensagem = Mensagem.builder()
+                    .id(id)
+                    .usuario("Maria")
+                    .conteudo("Mensagem two")
+                    .build();
+
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.IF_MATCH, "*")
+                    .body(mensagem)
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        }
+
         @Test
         void deveGerarExecaoQuandoAlterarMensagemIdNaoExiste() {
             var id = UUID.fromString("4ff2f92d-c45d-4b5b-b31a-dbd55223457");
@@ -223,6 +482,48 @@ public class MensagemControllerIT {
                             .statusCode(HttpStatus.OK.value())
                             .body(matchesJsonSchemaInClasspath("schemas/mensagem.page.schema.json"));
                 }
+
+                @Test
+                void devePermitirListarMensagensEmFatia() {
+                    given()
+                            .queryParam("page", 0)
+                            .queryParam("size", 2)
+                            .when()
+                            .get("/mensagens/slice")
+                            .then()
+                            .statusCode(HttpStatus.OK.value())
+                            .body("content.size()", equalTo(2))
+                            .body("last", equalTo(false));
+                }
+
+                @Test
+                void deveGerarExcecaoQuandoTamanhoDaPaginaExcederMaximo() {
+                    for (var caminho : List.of("/mensagens", "/mensagens/slice", "/mensagens/cursor")) {
+                        given()
+                                .queryParam("size", 1_000_000)
+                                .when()
+                                .get(caminho)
+                                .then()
+                                .statusCode(HttpStatus.BAD_REQUEST.value())
+                                .body(equalTo("tamanho da página deve estar entre 1 e 100"));
+                    }
+                }
+
+                @Test
+                void devePermitirContarMensagens() {
+                    contadorMensagens.recontar();
+                    var mensagem = MensagemHelper.gerarMensagem();
+                    given()
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .body(mensagem)
+                            .post("/mensagens");
+
+                    when()
+                            .get("/mensagens/total")
+                            .then()
+                            .statusCode(HttpStatus.OK.value())
+                            .body(equalTo("4"));
+                }
             }
         }
     }
@@ -1,11 +1,22 @@
 package br.api.tests.controller;
 
+import br.api.tests.config.MensagemProperties;
 import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.exception.MensagemVersaoConflitanteException;
+import br.api.tests.exception.MensagensInvalidasException;
+import br.api.tests.model.CursorPage;
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemInvalida;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.model.ResultadoBuscaPorIds;
+import br.api.tests.model.ResultadoImportacao;
 import br.api.tests.service.MensagemService;
 import br.api.tests.utils.MensagemHelper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,14 +28,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,13 +59,20 @@ public class MensagemControllerTest {
     @Mock
     private MensagemService mensagemService;
 
+    private CorpoMensagemCache corpoMensagemCache;
+
     private AutoCloseable openMocks;
 
     @BeforeEach
     void setup() {
         openMocks = MockitoAnnotations.openMocks(this);
-        MensagemController mensagemController = new MensagemController(mensagemService);
+        var objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        corpoMensagemCache = spy(new CorpoMensagemCache(new MensagemProperties(), objectMapper,
+                new SimpleMeterRegistry()));
+        MensagemController mensagemController = new MensagemController(mensagemService, objectMapper,
+                corpoMensagemCache);
         mockMvc = MockMvcBuilders.standaloneSetup(mensagemController)
+                .setControllerAdvice(new MensagemErroTextoAdvice())
                 .addFilter((request, response, chain) -> {
                     response.setCharacterEncoding("UTF-8");
                     chain.doFilter(request, response);
@@ -74,6 +103,22 @@ public class MensagemControllerTest {
             verify(mensagemService, times(1)).registrarMensagem(any(Mensagem.class));
         }
 
+        @Test
+        void deveGerarExcecaoQuandoRegistrarMensagemInvalida() throws Exception {
+            // Arrange
+            var mensagem = MensagemHelper.gerarMensagem();
+            when(mensagemService.registrarMensagem(any(Mensagem.class)))
+                    .thenThrow(new IllegalArgumentException("conteúdo não pode passar de 4096 caracteres"));
+
+            // Act & Assert
+            mockMvc.perform(post("/mensagens")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem))
+                    )
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("conteúdo não pode passar de 4096 caracteres"));
+        }
+
         @Test
         void deveGerarExecaoQuandoRegistrarMensagemPayloadXML() throws Exception {
             // Arrange
@@ -88,6 +133,40 @@ public class MensagemControllerTest {
         }
     }
 
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagensEmLote() throws Exception {
+            var ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+            when(mensagemService.registrarMensagens(anyList()))
+                    .thenReturn(ids);
+
+            mockMvc.perform(post("/mensagens/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(List.of(MensagemHelper.gerarMensagem(), MensagemHelper.gerarMensagem())))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$[0]").value(ids.get(0).toString()))
+                    .andExpect(jsonPath("$[1]").value(ids.get(1).toString()));
+            verify(mensagemService, times(1)).registrarMensagens(anyList());
+        }
+
+        @Test
+        void deveGerarExcecaoComIndicesQuandoLoteTiverMensagensInvalidas() throws Exception {
+            when(mensagemService.registrarMensagens(anyList()))
+                    .thenThrow(new MensagensInvalidasException(
+                            List.of(new MensagemInvalida(1, "usuário não pode estar vazio"))));
+
+            mockMvc.perform(post("/mensagens/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(List.of(MensagemHelper.gerarMensagem(), MensagemHelper.gerarMensagem())))
+                    )
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$[0].indice").value(1))
+                    .andExpect(jsonPath("$[0].motivo").value("usuário não pode estar vazio"));
+        }
+    }
+
     @Nested
     class BuscarMensagem {
         @Test
@@ -103,6 +182,60 @@ public class MensagemControllerTest {
             verify(mensagemService, times(1)).buscarMensagem(any(UUID.class));
         }
 
+        @Test
+        void deveUsarCorpoEmCacheQuandoAcceptPreferirJson() throws Exception {
+            var id = UUID.fromString("3e4f5a6b-7c8d-4e9f-8a0b-1c2d3e4f5a6b");
+            var mensagem = MensagemHelper.gerarMensagem();
+            when(mensagemService.buscarMensagem(id))
+                    .thenReturn(mensagem);
+
+            mockMvc.perform(get("/mensagens/{id}", id)
+                            .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+            verify(corpoMensagemCache).obter(mensagem);
+        }
+
+        @Test
+        void deveResponderErroComoTextoQuandoClientePedirCbor() throws Exception {
+            mockMvc.perform(get("/mensagens/{id}", "nao-e-um-uuid")
+                            .accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                    .andExpect(content().string("O formato do ID fornecido é inválido."));
+            verify(corpoMensagemCache, never()).obter(any(Mensagem.class));
+        }
+
+        @Test
+        void deveRetornarEtagAoBuscarMensagem() throws Exception {
+            var id = UUID.fromString("6f5e4d3c-2b1a-4f0e-9d8c-7b6a5f4e3d2c");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setVersao(2L);
+            mensagem.setGostei(7);
+            when(mensagemService.buscarMensagem(id))
+                    .thenReturn(mensagem);
+
+            mockMvc.perform(get("/mensagens/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"2-7\""));
+        }
+
+        @Test
+        void deveRetornarNaoModificadoQuandoEtagCorresponder() throws Exception {
+            var id = UUID.fromString("1a2b3c4d-5e6f-4a7b-8c9d-0e1f2a3b4c5d");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setVersao(2L);
+            mensagem.setGostei(7);
+            when(mensagemService.buscarMensagem(id))
+                    .thenReturn(mensagem);
+
+            mockMvc.perform(get("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"2-7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"2-7\""))
+                    .andExpect(content().string(""));
+        }
+
         @Test
         void deveGerarExecaoQuandoBuscarMensagemIdNaoExiste() throws Exception {
             // Arrange
@@ -117,6 +250,87 @@ public class MensagemControllerTest {
         }
     }
 
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagensPorIds() throws Exception {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            var inexistente = UUID.fromString("3c2b1a0f-9e8d-4c7b-8a6f-5e4d3c2b1a0f");
+            when(mensagemService.buscarMensagens(List.of(mensagem.getId(), inexistente)))
+                    .thenReturn(new ResultadoBuscaPorIds(List.of(mensagem), List.of(inexistente)));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("ids", mensagem.getId() + "," + inexistente))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.mensagens[0].id").value(mensagem.getId().toString()))
+                    .andExpect(jsonPath("$.naoEncontrados[0]").value(inexistente.toString()));
+            verify(mensagemService, never()).listasMensagens(any(FiltroMensagens.class), any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoBuscarMensagensIdInvalido() throws Exception {
+            mockMvc.perform(get("/mensagens")
+                            .param("ids", "xpto"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("O formato do ID fornecido é inválido."));
+            verify(mensagemService, never()).buscarMensagens(anyList());
+        }
+    }
+
+    @Nested
+    class BuscarPorTexto {
+        @Test
+        void devePermitirBuscarMensagensPorTexto() throws Exception {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            when(mensagemService.buscarPorTexto("xpto", 5))
+                    .thenReturn(List.of(mensagem));
+
+            mockMvc.perform(get("/mensagens/search")
+                            .param("q", "xpto")
+                            .param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(mensagem.getId().toString()));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoConsultaVazia() throws Exception {
+            when(mensagemService.buscarPorTexto(" ", 10))
+                    .thenThrow(new IllegalArgumentException("a consulta não pode estar vazia"));
+
+            mockMvc.perform(get("/mensagens/search")
+                            .param("q", " "))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("a consulta não pode estar vazia"));
+        }
+    }
+
+    @Nested
+    class ListarMaisCurtidas {
+        @Test
+        void devePermitirListarMaisCurtidas() throws Exception {
+            var id = UUID.randomUUID();
+            when(mensagemService.listarMaisCurtidas(5))
+                    .thenReturn(List.of(new PosicaoRanking(id, 3)));
+
+            mockMvc.perform(get("/mensagens/top")
+                            .param("n", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(id.toString()))
+                    .andExpect(jsonPath("$[0].gostei").value(3));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoQuantidadeInvalida() throws Exception {
+            when(mensagemService.listarMaisCurtidas(0))
+                    .thenThrow(new IllegalArgumentException("quantidade de posições deve estar entre 1 e 100"));
+
+            mockMvc.perform(get("/mensagens/top")
+                            .param("n", "0"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("quantidade de posições deve estar entre 1 e 100"));
+        }
+    }
+
     @Nested
     class AlterarMensagem {
         @Test
@@ -182,6 +396,151 @@ public class MensagemControllerTest {
         }
 
 
+        @Test
+        void devePermitirAlterarMensagemNaVersaoDoIfMatch() throws Exception {
+            var id = UUID.fromString("2c3d4e5f-6a7b-4c8d-9e0f-1a2b3c4d5e6f");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.buscarMensagem(id)).thenReturn(mensagem.toBuilder().versao(3L).build());
+            when(mensagemService.alterarMensagem(eq(id), any(Mensagem.class), eq(3L)))
+                    .thenAnswer(i -> i.<Mensagem>getArgument(1).toBuilder().versao(4L).build());
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "\"3-0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4-0\""));
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchEstiverDesatualizado() throws Exception {
+            var id = UUID.fromString("8e9f0a1b-2c3d-4e5f-8a7b-9c0d1e2f3a4b");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.buscarMensagem(id)).thenReturn(mensagem.toBuilder().versao(2L).gostei(5).build());
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "\"1-5\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed());
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class), any());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchTiverGosteiDesatualizado() throws Exception {
+            var id = UUID.fromString("9f0a1b2c-3d4e-4f5a-9b8c-0d1e2f3a4b5c");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.buscarMensagem(id)).thenReturn(mensagem.toBuilder().versao(3L).gostei(1).build());
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "\"3-0\", \"3-garbage\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed());
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class), any());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchForMalformado() throws Exception {
+            var id = UUID.fromString("0a1b2c3d-4e5f-4a6b-8c9d-1e2f3a4b5c6d");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+
+            for (var ifMatch : List.of("3", "3-0", "\"3", "\"3-0\"x", "\"3-0\", 3-0")) {
+                mockMvc.perform(put("/mensagens/{id}", id)
+                                .header(HttpHeaders.IF_MATCH, ifMatch)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(mensagem)))
+                        .andExpect(status().isPreconditionFailed())
+                        .andExpect(content().string("A pré-condição If-Match contém uma ETag malformada."));
+            }
+            verify(mensagemService, never()).buscarMensagem(any(UUID.class));
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class), any());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoVersaoMudarEntreIfMatchEAlteracao() throws Exception {
+            var id = UUID.fromString("1b2c3d4e-5f6a-4b7c-9d0e-2f3a4b5c6d7e");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            var conteudoExcecao = "A mensagem foi alterada por outra requisição.";
+            when(mensagemService.buscarMensagem(id)).thenReturn(mensagem.toBuilder().versao(1L).gostei(5).build());
+            when(mensagemService.alterarMensagem(eq(id), any(Mensagem.class), eq(1L)))
+                    .thenThrow(new MensagemVersaoConflitanteException(conteudoExcecao));
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "\"1-5\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(content().string(conteudoExcecao));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchForEtagFraca() throws Exception {
+            var id = UUID.fromString("4d5e6f7a-8b9c-4d0e-9f1a-2b3c4d5e6f7a");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "W/\"1-5\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed());
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class), any());
+        }
+
+        @Test
+        void devePermitirAlterarMensagemQuandoQualquerEtagDoIfMatchCorresponder() throws Exception {
+            var id = UUID.fromString("6f7a8b9c-0d1e-4f2a-8b3c-4d5e6f7a8b9c");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.buscarMensagem(id)).thenReturn(mensagem.toBuilder().versao(3L).build());
+            when(mensagemService.alterarMensagem(eq(id), any(Mensagem.class), eq(3L)))
+                    .thenAnswer(i -> i.<Mensagem>getArgument(1).toBuilder().versao(4L).build());
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "W/\"3-0\", \"1-5\", \"3-0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4-0\""));
+            verify(mensagemService, times(1)).alterarMensagem(eq(id), any(Mensagem.class), any());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchApontarMensagemInexistente() throws Exception {
+            var id = UUID.fromString("2c3d4e5f-6a7b-4c8d-8e9f-3a4b5c6d7e8f");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.buscarMensagem(id)).thenThrow(new MensagemNotFoundException("Mensagem não encontrada."));
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "\"1-0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIfMatchCuringaEMensagemNaoExistir() throws Exception {
+            var id = UUID.fromString("7a8b9c0d-1e2f-4a3b-9c4d-5e6f7a8b9c0d");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.alterarMensagem(eq(id), any(Mensagem.class)))
+                    .thenThrow(new MensagemNotFoundException("Mensagem não encontrada."));
+
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, "*")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
         @Test
         void deveGerarExecaoQuandoPayloadMensagemPayloadXML() throws Exception {
             // Arrange
@@ -197,6 +556,40 @@ public class MensagemControllerTest {
         }
     }
 
+    @Nested
+    class IncrementarGostei {
+        @Test
+        void devePermitirIncrementarGostei() throws Exception {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            mensagem.setGostei(1);
+            when(mensagemService.incrementarGostei(any(UUID.class)))
+                    .thenReturn(mensagem);
+
+            mockMvc.perform(post("/mensagens/{id}/gostei", mensagem.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.gostei").value(1));
+            verify(mensagemService, times(1)).incrementarGostei(mensagem.getId());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIncrementarGosteiIdNaoExiste() throws Exception {
+            var id = UUID.fromString("6c1c1f0a-8a43-4f3b-9f1e-2a7c5d9e0b33");
+            when(mensagemService.incrementarGostei(any(UUID.class)))
+                    .thenThrow(new MensagemNotFoundException("Mensagem não encontrada."));
+
+            mockMvc.perform(post("/mensagens/{id}/gostei", id))
+                    .andExpect(status().isNotFound())
+                    .andExpect(content().string("Mensagem não encontrada."));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIncrementarGosteiIdInvalido() throws Exception {
+            mockMvc.perform(post("/mensagens/{id}/gostei", "xpto"))
+                    .andExpect(status().isBadRequest());
+            verify(mensagemService, never()).incrementarGostei(any(UUID.class));
+        }
+    }
+
     @Nested
     class RemoverMensagem {
         @Test
@@ -231,24 +624,187 @@ public class MensagemControllerTest {
     class ListarMensagens {
         @Test
         void devePermitirListarMensagens() throws Exception {
-            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            var mensagem = MensagemHelper.gerarMensagemResumo();
             Pageable pageable = PageRequest.of(0, 10);
-            Page<Mensagem> page = new PageImpl<>(Collections.singletonList(mensagem), pageable, 1L);
+            Page<MensagemResumo> page = new PageImpl<>(Collections.singletonList(mensagem), pageable, 1L);
 
-            when(mensagemService.listasMensagens(any(Pageable.class)))
+            when(mensagemService.listasMensagens(any(FiltroMensagens.class), any(Pageable.class)))
                     .thenReturn(page);
 
             mockMvc.perform(get("/mensagens")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.content[0].id").value(mensagem.getId().toString()))
-                    .andExpect(jsonPath("$.content[0].conteudo").value(mensagem.getConteudo()))
-                    .andExpect(jsonPath("$.content[0].usuario").value(mensagem.getUsuario()))
+                    .andExpect(jsonPath("$.content[0].id").value(mensagem.id().toString()))
+                    .andExpect(jsonPath("$.content[0].conteudo").value(mensagem.conteudo()))
+                    .andExpect(jsonPath("$.content[0].usuario").value(mensagem.usuario()))
                     .andExpect(jsonPath("$.content[0].dataCriacao").exists())
                     .andExpect(jsonPath("$.content[0].gostei").exists());
 
             verify(mensagemService, times(1))
-                    .listasMensagens(any(Pageable.class));
+                    .listasMensagens(any(FiltroMensagens.class), any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagensComFiltro() throws Exception {
+            var filtro = new FiltroMensagens("joe", LocalDateTime.parse("2024-01-01T00:00:00"),
+                    LocalDateTime.parse("2024-02-01T00:00:00"));
+            when(mensagemService.listasMensagens(eq(filtro), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(MensagemHelper.gerarMensagemResumo())));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("usuario", "joe")
+                            .param("de", "2024-01-01T00:00:00")
+                            .param("ate", "2024-02-01T00:00:00"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].usuario").value("joe"));
+            verify(mensagemService, times(1)).listasMensagens(eq(filtro), any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoIntervaloDoFiltroInvalido() throws Exception {
+            when(mensagemService.listasMensagens(any(FiltroMensagens.class), any(Pageable.class)))
+                    .thenThrow(new IllegalArgumentException("o início do intervalo deve ser anterior ao fim"));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("de", "2024-02-01T00:00:00")
+                            .param("ate", "2024-01-01T00:00:00"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("o início do intervalo deve ser anterior ao fim"));
+        }
+
+        @Test
+        void devePermitirListarMensagensOrdenadasComDesempatePeloId() throws Exception {
+            when(mensagemService.listasMensagens(any(FiltroMensagens.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(MensagemHelper.gerarMensagemResumo())));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("sort", "gostei,asc"))
+                    .andExpect(status().isOk());
+            verify(mensagemService, times(1)).listasMensagens(any(FiltroMensagens.class),
+                    eq(PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "gostei", "id"))));
+        }
+
+        @Test
+        void deveGerarExecaoQuandoOrdenacaoNaoPermitida() throws Exception {
+            mockMvc.perform(get("/mensagens/slice")
+                            .param("sort", "conteudo"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("ordenação inválida: conteudo"));
+            verify(mensagemService, never()).listarMensagensEmFatia(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagensEmFatia() throws Exception {
+            var mensagem = MensagemHelper.gerarMensagemResumo();
+            Slice<MensagemResumo> fatia = new SliceImpl<>(Collections.singletonList(mensagem), PageRequest.of(0, 10), false);
+            when(mensagemService.listarMensagensEmFatia(any(Pageable.class)))
+                    .thenReturn(fatia);
+
+            mockMvc.perform(get("/mensagens/slice"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(mensagem.id().toString()))
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+            verify(mensagemService, never()).listasMensagens(any(FiltroMensagens.class), any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirContarMensagens() throws Exception {
+            when(mensagemService.contarMensagens())
+                    .thenReturn(42L);
+
+            mockMvc.perform(get("/mensagens/total"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("42"));
+        }
+    }
+
+    @Nested
+    class ListarMensagensPorCursor {
+        @Test
+        void devePermitirListarMensagensPorCursor() throws Exception {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            when(mensagemService.listarMensagensPorCursor(any(), anyInt()))
+                    .thenReturn(new CursorPage<>(List.of(mensagem), "proximo"));
+
+            mockMvc.perform(get("/mensagens/cursor")
+                            .param("after", "anterior")
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(mensagem.getId().toString()))
+                    .andExpect(jsonPath("$.next").value("proximo"));
+
+            verify(mensagemService, times(1)).listarMensagensPorCursor("anterior", 1);
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoCursorInvalido() throws Exception {
+            when(mensagemService.listarMensagensPorCursor(any(), anyInt()))
+                    .thenThrow(new IllegalArgumentException("O cursor fornecido é inválido."));
+
+            mockMvc.perform(get("/mensagens/cursor")
+                            .param("after", "xpto"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("O cursor fornecido é inválido."));
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        @SuppressWarnings("unchecked")
+        void devePermitirExportarMensagensEmNdjson() throws Exception {
+            var primeira = MensagemHelper.gerarMensagemCompleta();
+            var segunda = MensagemHelper.gerarMensagemCompleta();
+            doAnswer(invocation -> {
+                Consumer<Mensagem> consumidor = invocation.getArgument(0);
+                consumidor.accept(primeira);
+                consumidor.accept(segunda);
+                return null;
+            }).when(mensagemService).exportarMensagens(any());
+
+            var resultado = mockMvc.perform(get("/mensagens/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            var corpo = mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertThat(corpo).endsWith("\n");
+            assertThat(corpo.lines()).hasSize(2);
+            assertThat(corpo.lines().toList().get(0)).contains(primeira.getId().toString());
+            assertThat(corpo.lines().toList().get(1)).contains(segunda.getId().toString());
+            verify(mensagemService, times(1)).exportarMensagens(any());
+        }
+    }
+
+    @Nested
+    class ImportarMensagens {
+        @Test
+        void devePermitirImportarMensagensEmNdjson() throws Exception {
+            when(mensagemService.importarMensagens(any()))
+                    .thenReturn(new ResultadoImportacao(1, 1,
+                            List.of(new ResultadoImportacao.Rejeicao(2, "usuário não pode estar vazio"))));
+
+            mockMvc.perform(post("/mensagens/import")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("{\"usuario\":\"joe\",\"conteudo\":\"xpto\"}\n{\"conteudo\":\"xpto\"}\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.aceitas").value(1))
+                    .andExpect(jsonPath("$.rejeitadas").value(1))
+                    .andExpect(jsonPath("$.rejeicoes[0].linha").value(2));
+            verify(mensagemService, times(1)).importarMensagens(any());
+        }
+
+        @Test
+        void deveGerarExecaoQuandoImportarMensagensPayloadJson() throws Exception {
+            mockMvc.perform(post("/mensagens/import")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[]"))
+                    .andExpect(status().isUnsupportedMediaType());
+            verify(mensagemService, never()).importarMensagens(any());
         }
     }
 
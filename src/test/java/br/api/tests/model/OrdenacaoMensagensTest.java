@@ -0,0 +1,41 @@
+package br.api.tests.model;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrdenacaoMensagensTest {
+
+    @Nested
+    class De {
+        @Test
+        void deveUsarDataCriacaoDecrescenteQuandoNaoInformada() {
+            assertThat(OrdenacaoMensagens.de(null))
+                    .isEqualTo(Sort.by(Sort.Direction.DESC, "dataCriacao", "id"));
+        }
+
+        @Test
+        void deveDesempatarPeloIdNaMesmaDirecao() {
+            assertThat(OrdenacaoMensagens.de("gostei,asc"))
+                    .isEqualTo(Sort.by(Sort.Direction.ASC, "gostei", "id"));
+            assertThat(OrdenacaoMensagens.de("dataAlteracao"))
+                    .isEqualTo(Sort.by(Sort.Direction.DESC, "dataAlteracao", "id"));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoCampoNaoPermitido() {
+            assertThatThrownBy(() -> OrdenacaoMensagens.de("conteudo,asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("ordenação inválida: conteudo,asc");
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoDirecaoInvalida() {
+            assertThatThrownBy(() -> OrdenacaoMensagens.de("gostei,para-cima"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
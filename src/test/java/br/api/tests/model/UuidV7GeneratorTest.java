@@ -0,0 +1,57 @@
+package br.api.tests.model;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Nested
+    class Proximo {
+        @Test
+        void deveGerarUuidVersao7ComVarianteRfc() {
+            var uuid = UuidV7Generator.proximo();
+
+            assertThat(uuid.version()).isEqualTo(7);
+            assertThat(uuid.variant()).isEqualTo(2);
+        }
+
+        @Test
+        void deveCodificarTimestampAtualEmMilissegundos() {
+            var antes = System.currentTimeMillis();
+            var uuid = UuidV7Generator.proximo();
+            var depois = System.currentTimeMillis();
+
+            var timestamp = uuid.getMostSignificantBits() >>> 16;
+            assertThat(timestamp).isBetween(antes, depois + 1);
+        }
+
+        @Test
+        void deveGerarValoresEstritamenteCrescentes() {
+            var gerados = new ArrayList<UUID>();
+            for (int i = 0; i < 100_000; i++) {
+                gerados.add(UuidV7Generator.proximo());
+            }
+
+            assertThat(gerados).isSorted().doesNotHaveDuplicates();
+        }
+
+        @Test
+        void naoDeveGerarDuplicadosEntreThreads() {
+            var gerados = new ConcurrentLinkedQueue<UUID>();
+            IntStream.range(0, 50_000).parallel()
+                    .forEach(i -> gerados.add(UuidV7Generator.proximo()));
+
+            var ordenados = new ArrayList<>(gerados);
+            Collections.sort(ordenados);
+            assertThat(ordenados).hasSize(50_000).doesNotHaveDuplicates();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package br.api.tests.performance;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorteia posições em {@code [0, n)} com probabilidade proporcional a {@code 1 / (posição + 1)^expoente}: poucas
+ * posições concentram a maior parte dos sorteios, como mensagens populares e usuários muito ativos.
+ */
+public class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    public DistribuicaoZipf(int n, double expoente) {
+        if (n < 1) {
+            throw new IllegalArgumentException("a distribuição precisa de ao menos uma posição");
+        }
+        acumulada = new double[n];
+        var soma = 0.0;
+        for (int i = 0; i < n; i++) {
+            soma += 1.0 / Math.pow(i + 1, expoente);
+            acumulada[i] = soma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= soma;
+        }
+    }
+
+    public int sortear() {
+        var posicao = Arrays.binarySearch(acumulada, ThreadLocalRandom.current().nextDouble());
+        return Math.min(posicao >= 0 ? posicao : -posicao - 1, acumulada.length - 1);
+    }
+}
@@ -1,51 +1,180 @@
 package br.api.tests.performance;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gatling.javaapi.core.*;
 import io.gatling.javaapi.http.HttpProtocolBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.gatling.javaapi.core.CoreDsl.*;
 import static io.gatling.javaapi.http.HttpDsl.*;
 
-
+/**
+ * Mistura de cargas sobre a API de mensagens: leituras por id, gosteis, alterações, listagens em páginas
+ * profundas e por cursor, registros e remoções. Os ids e os usuários seguem uma distribuição de Zipf e o
+ * conteúdo varia de tamanho como em mensagens reais. Cada requisição tem suas metas de p95 e p99.
+ * <p>
+ * Parâmetros (propriedades do sistema): {@code baseUrl}, {@code taxa} (requisições iniciadas por segundo,
+ * somando todos os cenários), {@code duracao} e {@code rampa} (segundos), {@code mensagens} (quantas são
+ * semeadas antes da carga) e {@code zipf} (expoente da distribuição). Exemplo:
+ * {@code mvn gatling:test -P performance-test -DbaseUrl=https://staging -Dtaxa=5000 -Dduracao=600}
+ * <p>
+ * Ao final, informa as instruções SQL por segundo ({@code hibernate.statements.prepared} do actuator) durante a
+ * carga e os acertos dos caches do Hibernate; para comparar, rode uma vez com a API iniciada com
+ * {@code MENSAGENS_SEGUNDO_NIVEL_HABILITADO=true} e outra sem.
+ */
 public class PerformanceSimulation extends Simulation {
 
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final double TAXA = Double.parseDouble(System.getProperty("taxa", "10"));
+    private static final Duration DURACAO = Duration.ofSeconds(Long.getLong("duracao", 60));
+    private static final Duration RAMPA = Duration.ofSeconds(Long.getLong("rampa", 10));
+    private static final int MENSAGENS = Integer.getInteger("mensagens", 1_000);
+    private static final double ZIPF = Double.parseDouble(System.getProperty("zipf", "1.1"));
+
+    private static final List<String> METRICAS_BANCO = List.of(
+            "hibernate.statements.prepared",
+            "hibernate.second-level-cache.hits", "hibernate.second-level-cache.misses",
+            "hibernate.query-cache.hits", "hibernate.query-cache.misses");
+
+    private static final int USUARIOS = 1_000;
+    private static final int TAMANHO_PAGINA = 20;
+    private static final int PAGINAS_CURSOR = 5;
+    private static final List<String> PALAVRAS = List.of(
+            "reunião", "amanhã", "projeto", "entrega", "cliente", "revisão", "prazo", "equipe", "código",
+            "teste", "deploy", "banco", "consulta", "índice", "relatório", "almoço", "café", "viagem",
+            "semana", "resultado", "problema", "solução", "ideia", "urgente", "obrigado", "bom", "dia");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private final Map<String, Double> metricasIniciais = new LinkedHashMap<>();
+    private long inicioCarga;
+    private final List<String> ids = new ArrayList<>(MENSAGENS);
+    private final DistribuicaoZipf zipfMensagens = new DistribuicaoZipf(MENSAGENS, ZIPF);
+    private final DistribuicaoZipf zipfUsuarios = new DistribuicaoZipf(USUARIOS, ZIPF);
+
     private final HttpProtocolBuilder httpProtocol = http
-            .baseUrl("http://localhost:8080")
-            .contentTypeHeader("application/json");
+            .baseUrl(BASE_URL)
+            .contentTypeHeader("application/json")
+            .acceptHeader("application/json");
+
+    // os ids só existem depois do before(); os feeders são lidos preguiçosamente, já durante a carga
+    private final Iterator<Map<String, Object>> mensagensPopulares = Stream.generate(
+            () -> Map.<String, Object>of("mensagemId", ids.get(zipfMensagens.sortear()))).iterator();
+
+    private final Iterator<Map<String, Object>> novasMensagens = Stream.generate(
+            () -> Map.<String, Object>of(
+                    "usuario", "usuario-" + zipfUsuarios.sortear(),
+                    "conteudo", gerarConteudo())).iterator();
+
+    private final Iterator<Map<String, Object>> paginas = Stream.generate(
+            () -> Map.<String, Object>of("pagina", sortearPagina())).iterator();
+
+    // total de mensagens na API, para que as listagens alcancem o fim da tabela enquanto ela cresce
+    private final AtomicLong totalMensagens = new AtomicLong();
 
     ChainBuilder adicionarMensagemRequest =
-            exec(
-                    http("adicionar mensagem")
+            feed(novasMensagens)
+                    .exec(http("adicionar mensagem")
                             .post("/mensagens")
-                            .body(StringBody("{ \"usuario\": \"user\", \"conteudo\": \"demo\" }"))
+                            .body(StringBody("{ \"usuario\": \"#{usuario}\", \"conteudo\": \"#{conteudo}\" }"))
                             .check(status().is(201))
-                            .check(jsonPath("$.id").saveAs("mensagemId"))
-            );
+                            .check(jsonPath("$.id").saveAs("mensagemId")))
+                    .exec(session -> {
+                        totalMensagens.incrementAndGet();
+                        return session;
+                    });
 
     ChainBuilder buscarMensagemRequest =
-            exec(
-                    http("buscar mensagem")
-                            .get("/mensagens/#{mensagemId}")
-                            .check(status().is(200))
-            );
+            exec(http("buscar mensagem")
+                    .get("/mensagens/#{mensagemId}")
+                    .check(status().is(200))
+                    .check(header("ETag").saveAs("etag")));
 
-    ChainBuilder removerMensagemRequest =
-            exec(
-                    http("remover mensagem")
-                            .delete("/mensagens/#{mensagemId}")
-                            .check(status().is(200))
-            );
+    ChainBuilder alterarMensagemRequest =
+            feed(novasMensagens)
+                    .exec(http("alterar mensagem")
+                            .put("/mensagens/#{mensagemId}")
+                            .header("If-Match", "#{etag}")
+                            .body(StringBody("{ \"usuario\": \"#{usuario}\", \"conteudo\": \"#{conteudo}\" }"))
+                            // mensagens populares são disputadas; perder a corrida para outra alteração é esperado
+                            .check(status().in(200, 412)));
 
+    ChainBuilder gosteiRequest =
+            exec(http("gostei")
+                    .post("/mensagens/#{mensagemId}/gostei")
+                    .check(status().is(200)));
 
-    ScenarioBuilder cenarioAdicionarMensagem = scenario("Adicionar mensagem")
-            .exec(adicionarMensagemRequest);
+    ChainBuilder listarPaginaRequest =
+            feed(paginas)
+                    .exec(http("listar página")
+                            .get("/mensagens")
+                            .queryParam("page", "#{pagina}")
+                            .queryParam("size", TAMANHO_PAGINA)
+                            .check(status().is(200)));
+
+    ChainBuilder listarPorCursorRequest =
+            exec(http("listar cursor")
+                    .get("/mensagens/cursor")
+                    .queryParam("size", TAMANHO_PAGINA)
+                    .check(status().is(200))
+                    .check(jsonPath("$.next").optional().saveAs("proximo")))
+                    .asLongAs(PerformanceSimulation::continuarCursor, "paginaCursor").on(
+                            exec(session -> session.set("cursor", session.getString("proximo")).remove("proximo"))
+                                    .exec(http("listar cursor seguinte")
+                                            .get("/mensagens/cursor")
+                                            .queryParam("after", "#{cursor}")
+                                            .queryParam("size", TAMANHO_PAGINA)
+                                            .check(status().is(200))
+                                            .check(jsonPath("$.next").optional().saveAs("proximo"))));
+
+    ChainBuilder removerMensagemRequest =
+            exec(http("remover mensagem")
+                    .delete("/mensagens/#{mensagemId}")
+                    .check(status().is(200)))
+                    .exec(session -> {
+                        totalMensagens.decrementAndGet();
+                        return session;
+                    });
 
     ScenarioBuilder cenarioBuscarMensagem = scenario("Buscar mensagem")
-            .exec(adicionarMensagemRequest)
+            .feed(mensagensPopulares)
             .exec(buscarMensagemRequest);
 
+    ScenarioBuilder cenarioGostei = scenario("Gostei")
+            .feed(mensagensPopulares)
+            .exec(gosteiRequest);
+
+    ScenarioBuilder cenarioAlterarMensagem = scenario("Alterar mensagem")
+            .feed(mensagensPopulares)
+            .exec(buscarMensagemRequest)
+            .exec(alterarMensagemRequest);
+
+    ScenarioBuilder cenarioListarPagina = scenario("Listar página")
+            .exec(listarPaginaRequest);
+
+    ScenarioBuilder cenarioListarPorCursor = scenario("Listar por cursor")
+            .exec(listarPorCursorRequest);
+
+    ScenarioBuilder cenarioAdicionarMensagem = scenario("Adicionar mensagem")
+            .exec(adicionarMensagemRequest);
+
+    // remove apenas o que acabou de criar, para não esvaziar o conjunto de mensagens populares
     ScenarioBuilder cenarioRemoverMensagem = scenario("Remover mensagem")
             .exec(adicionarMensagemRequest)
             .exec(removerMensagemRequest);
@@ -53,38 +182,144 @@ public class PerformanceSimulation extends Simulation {
 
     {
         setUp(
-                cenarioAdicionarMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(2)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(2)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(2)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))
-                ),
-                cenarioBuscarMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioRemoverMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(5)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(5)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(5)
-                                .to(1)
-                                .during(Duration.ofSeconds(10)))
+                cenarioBuscarMensagem.injectOpen(carga(0.40)),
+                cenarioGostei.injectOpen(carga(0.15)),
+                cenarioAlterarMensagem.injectOpen(carga(0.05)),
+                cenarioListarPagina.injectOpen(carga(0.15)),
+                cenarioListarPorCursor.injectOpen(carga(0.05)),
+                cenarioAdicionarMensagem.injectOpen(carga(0.15)),
+                cenarioRemoverMensagem.injectOpen(carga(0.05))
         ).protocols(httpProtocol)
-                .assertions(
-                        global().responseTime().max().lt(500),
-                        global().failedRequests().count().is(0L)
-                );
+                .assertions(Stream.of(
+                                metas("buscar mensagem", 50, 150),
+                                metas("gostei", 50, 150),
+                                metas("alterar mensagem", 100, 250),
+                                metas("listar página", 150, 400),
+                                metas("listar cursor", 100, 250),
+                                metas("listar cursor seguinte", 100, 250),
+                                metas("adicionar mensagem", 100, 250),
+                                metas("remover mensagem", 100, 250),
+                                Stream.of(global().failedRequests().percent().lt(1.0)))
+                        .flatMap(Function.identity())
+                        .toList());
+    }
+
+    @Override
+    public void before() {
+        var lote = 500;
+        try {
+            for (int inicio = 0; inicio < MENSAGENS; inicio += lote) {
+                var mensagens = new ArrayList<Map<String, String>>();
+                for (int i = inicio; i < Math.min(inicio + lote, MENSAGENS); i++) {
+                    mensagens.add(Map.of(
+                            "usuario", "usuario-" + zipfUsuarios.sortear(),
+                            "conteudo", gerarConteudo()));
+                }
+                var resposta = cliente.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/mensagens/batch"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(mensagens)))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (resposta.statusCode() != 201) {
+                    throw new IllegalStateException("falha ao semear mensagens: HTTP " + resposta.statusCode());
+                }
+                ids.addAll(objectMapper.readValue(resposta.body(), new TypeReference<List<String>>() {
+                }));
+            }
+            totalMensagens.set(lerTotalMensagens());
+            for (var metrica : METRICAS_BANCO) {
+                metricasIniciais.put(metrica, lerMetrica(metrica));
+            }
+            inicioCarga = System.nanoTime();
+        } catch (IOException e) {
+            throw new IllegalStateException("falha ao semear mensagens", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("semeadura interrompida", e);
+        }
+    }
+
+    @Override
+    public void after() {
+        var segundos = (System.nanoTime() - inicioCarga) / 1e9;
+        try {
+            var delta = new LinkedHashMap<String, Double>();
+            for (var metrica : METRICAS_BANCO) {
+                delta.put(metrica, lerMetrica(metrica) - metricasIniciais.get(metrica));
+            }
+            System.out.printf("instruções SQL por segundo: %.1f (%.0f em %.0f s)%n",
+                    delta.get("hibernate.statements.prepared") / segundos,
+                    delta.get("hibernate.statements.prepared"), segundos);
+            System.out.printf("cache de segundo nível: %.0f acertos, %.0f faltas; cache de consultas: %.0f acertos, "
+                            + "%.0f faltas%n",
+                    delta.get("hibernate.second-level-cache.hits"), delta.get("hibernate.second-level-cache.misses"),
+                    delta.get("hibernate.query-cache.hits"), delta.get("hibernate.query-cache.misses"));
+        } catch (IOException e) {
+            System.out.println("métricas do banco indisponíveis: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // inclui as mensagens que já estavam na API antes da semeadura
+    private long lerTotalMensagens() throws IOException, InterruptedException {
+        var resposta = cliente.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/mensagens?size=1")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IOException("listagem respondeu HTTP " + resposta.statusCode());
+        }
+        return objectMapper.readTree(resposta.body()).get("totalElements").asLong();
+    }
+
+    private double lerMetrica(String nome) throws IOException, InterruptedException {
+        var resposta = cliente.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/metrics/" + nome)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IOException("métrica " + nome + " respondeu HTTP " + resposta.statusCode());
+        }
+        return objectMapper.readTree(resposta.body()).at("/measurements/0/value").asDouble();
+    }
+
+    private static OpenInjectionStep[] carga(double peso) {
+        var taxa = TAXA * peso;
+        return new OpenInjectionStep[]{
+                rampUsersPerSec(0).to(taxa).during(RAMPA),
+                constantUsersPerSec(taxa).during(DURACAO)
+        };
+    }
+
+    private static Stream<Assertion> metas(String requisicao, int p95, int p99) {
+        return Stream.of(
+                details(requisicao).responseTime().percentile(95.0).lt(p95),
+                details(requisicao).responseTime().percentile(99.0).lt(p99));
+    }
+
+    // a última página responde "next": null
+    private static boolean continuarCursor(Session session) {
+        var proximo = session.getString("proximo");
+        var pagina = session.contains("paginaCursor") ? session.getInt("paginaCursor") : 0;
+        return proximo != null && !proximo.equals("null") && pagina < PAGINAS_CURSOR - 1;
+    }
+
+    // a maior parte das leituras fica nas primeiras páginas; o restante percorre a tabela inteira, até a última
+    private int sortearPagina() {
+        var aleatorio = ThreadLocalRandom.current();
+        var paginas = (int) Math.max(1, (totalMensagens.get() + TAMANHO_PAGINA - 1) / TAMANHO_PAGINA);
+        return aleatorio.nextDouble() < 0.7 ? aleatorio.nextInt(Math.min(5, paginas)) : aleatorio.nextInt(paginas);
+    }
+
+    // tamanhos com cauda longa: muitas mensagens curtas e algumas bem longas, até uns 2 KB, dentro do limite de
+    // Mensagem.TAMANHO_MAXIMO_CONTEUDO
+    private static String gerarConteudo() {
+        var aleatorio = ThreadLocalRandom.current();
+        var palavras = (int) Math.min(300, Math.max(1, Math.exp(2.5 + aleatorio.nextGaussian())));
+        var conteudo = new StringBuilder();
+        for (int i = 0; i < palavras; i++) {
+            if (i > 0) {
+                conteudo.append(' ');
+            }
+            conteudo.append(PALAVRAS.get(aleatorio.nextInt(PALAVRAS.size())));
+        }
+        return conteudo.toString();
     }
 }
@@ -0,0 +1,208 @@
+package br.api.tests.repository;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "mensagens.fragmentacao.habilitada=true",
+        "mensagens.fragmentacao.fontes[0].url=jdbc:h2:mem:fragmentacao0" + FragmentacaoIT.H2,
+        "mensagens.fragmentacao.fontes[0].usuario=root",
+        "mensagens.fragmentacao.fontes[1].url=jdbc:h2:mem:fragmentacao1" + FragmentacaoIT.H2 + FragmentacaoIT.ESQUEMA,
+        "mensagens.fragmentacao.fontes[1].usuario=root",
+        "mensagens.fragmentacao.fontes[2].url=jdbc:h2:mem:fragmentacao2" + FragmentacaoIT.H2 + FragmentacaoIT.ESQUEMA,
+        "mensagens.fragmentacao.fontes[2].usuario=root"
+})
+@ActiveProfiles("test")
+public class FragmentacaoIT {
+
+    static final String H2 = ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final String ESQUEMA = ";INIT=RUNSCRIPT FROM 'classpath:mensagem.sql'";
+
+    private final Fragmentador fragmentador = new Fragmentador(3, null);
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        for (int fragmento = 0; fragmento < 3; fragmento++) {
+            try (var conexao = DriverManager.getConnection(url(fragmento), "root", "");
+                 var comando = conexao.createStatement()) {
+                comando.execute("DELETE FROM mensagem");
+            }
+        }
+    }
+
+    private static String url(int fragmento) {
+        return "jdbc:h2:mem:fragmentacao" + fragmento + H2;
+    }
+
+    private static List<UUID> idsNoFragmento(int fragmento) throws SQLException {
+        var ids = new ArrayList<UUID>();
+        try (var conexao = DriverManager.getConnection(url(fragmento), "root", "");
+             var resultado = conexao.createStatement().executeQuery("SELECT id FROM mensagem")) {
+            while (resultado.next()) {
+                ids.add(resultado.getObject(1, UUID.class));
+            }
+        }
+        return ids;
+    }
+
+    private static List<String> registrarEmLote(int quantidade) {
+        var corpo = IntStream.range(0, quantidade)
+                .mapToObj(i -> "{\"usuario\": \"joe\", \"conteudo\": \"mensagem " + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        return given()
+                .contentType(ContentType.JSON)
+                .body(corpo)
+                .when()
+                .post("/mensagens/batch")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().jsonPath().getList("$", String.class);
+    }
+
+    @Nested
+    class Escrita {
+        @Test
+        void deveGravarCadaMensagemNoFragmentoDoId() throws SQLException {
+            var ids = registrarEmLote(30);
+
+            var gravados = new ArrayList<UUID>();
+            for (int fragmento = 0; fragmento < 3; fragmento++) {
+                var doFragmento = idsNoFragmento(fragmento);
+                assertThat(doFragmento).isNotEmpty();
+                for (var id : doFragmento) {
+                    assertThat(fragmentador.fragmento(id)).isEqualTo(fragmento);
+                }
+                gravados.addAll(doFragmento);
+            }
+            assertThat(gravados).extracting(UUID::toString).containsExactlyInAnyOrderElementsOf(ids);
+        }
+
+        @Test
+        void deveOperarPorIdEmQualquerFragmento() {
+            String id = given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"usuario\": \"joe\", \"conteudo\": \"original\"}")
+                    .when()
+                    .post("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract().path("id");
+
+            given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"usuario\": \"joe\", \"conteudo\": \"alterada\"}")
+                    .when()
+                    .put("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+            when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("conteudo", equalTo("alterada"));
+
+            when()
+                    .delete("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+            when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.NOT_FOUND.value());
+        }
+    }
+
+    @Nested
+    class Listagem {
+        @Test
+        void deveIntercalarAsPaginasDosFragmentos() {
+            var ids = registrarEmLote(25);
+
+            var listados = new ArrayList<String>();
+            var datas = new ArrayList<String>();
+            for (int pagina = 0; pagina < 3; pagina++) {
+                var resposta = given()
+                        .queryParam("page", pagina)
+                        .queryParam("size", 10)
+                        .when()
+                        .get("/mensagens")
+                        .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .body("totalElements", equalTo(25))
+                        .extract().jsonPath();
+                listados.addAll(resposta.getList("content.id", String.class));
+                datas.addAll(resposta.getList("content.dataCriacao", String.class));
+            }
+
+            assertThat(listados).containsExactlyInAnyOrderElementsOf(ids);
+            assertThat(datas).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        }
+
+        @Test
+        void deveOrdenarPorCampoPedido() {
+            var ids = registrarEmLote(12);
+            for (int i = 0; i < 3; i++) {
+                when().post("/mensagens/{id}/gostei", ids.get(4)).then().statusCode(HttpStatus.OK.value());
+            }
+            when().post("/mensagens/{id}/gostei", ids.get(9)).then().statusCode(HttpStatus.OK.value());
+
+            given()
+                    .queryParam("size", 2)
+                    .queryParam("sort", "gostei,desc")
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("content.id", contains(ids.get(4), ids.get(9)));
+        }
+
+        @Test
+        void devePercorrerTodasPorCursor() {
+            var ids = registrarEmLote(25);
+
+            var listados = new ArrayList<String>();
+            String cursor = null;
+            do {
+                var requisicao = given().queryParam("size", 10);
+                if (cursor != null) {
+                    requisicao.queryParam("after", cursor);
+                }
+                var resposta = requisicao.when()
+                        .get("/mensagens/cursor")
+                        .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .extract().jsonPath();
+                listados.addAll(resposta.getList("content.id", String.class));
+                cursor = resposta.getString("next");
+            } while (cursor != null);
+
+            assertThat(listados).containsExactlyInAnyOrderElementsOf(ids);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.api.tests.repository;
+
+import br.api.tests.model.UuidV7Generator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FragmentadorTest {
+
+    @Nested
+    class Fragmento {
+        @Test
+        void deveDevolverSempreOMesmoFragmentoParaOMesmoId() {
+            var fragmentador = new Fragmentador(4, null);
+            var id = UUID.randomUUID();
+
+            assertThat(fragmentador.fragmento(id)).isEqualTo(fragmentador.fragmento(id))
+                    .isBetween(0, 3);
+        }
+
+        @Test
+        void deveDistribuirIdsSequenciaisDeFormaUniforme() {
+            var fragmentador = new Fragmentador(4, null);
+            var contagens = new int[4];
+            IntStream.range(0, 40_000).forEach(i -> contagens[fragmentador.fragmento(UuidV7Generator.proximo())]++);
+
+            assertThat(IntStream.of(contagens).boxed().toList()).allSatisfy(contagem -> assertThat(contagem).isBetween(9_000, 11_000));
+        }
+
+        @Test
+        void deveMoverSomenteParaOFragmentoNovoAoAcrescentarUm() {
+            var antes = new Fragmentador(3, null);
+            var depois = new Fragmentador(4, null);
+            var movidas = 0;
+            for (int i = 0; i < 40_000; i++) {
+                var id = UUID.randomUUID();
+                if (antes.fragmento(id) != depois.fragmento(id)) {
+                    assertThat(depois.fragmento(id)).isEqualTo(3);
+                    movidas++;
+                }
+            }
+
+            assertThat(movidas).isBetween(9_000, 11_000);
+        }
+
+        @Test
+        void deveRejeitarQuantidadesInvalidas() {
+            assertThatThrownBy(() -> new Fragmentador(0, null)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new Fragmentador(2, 3)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class FragmentoAnterior {
+        @Test
+        void deveInformarFragmentoAnteriorSomenteDasMensagensQueMudaram() {
+            var fragmentador = new Fragmentador(3, 2);
+            var anterior = new Fragmentador(2, null);
+            for (int i = 0; i < 1_000; i++) {
+                var id = UUID.randomUUID();
+                if (fragmentador.fragmento(id) == 2) {
+                    assertThat(fragmentador.fragmentoAnterior(id)).hasValue(anterior.fragmento(id));
+                } else {
+                    assertThat(fragmentador.fragmentoAnterior(id)).isEmpty();
+                }
+            }
+        }
+
+        @Test
+        void deveSerVazioSemRedistribuicao() {
+            var fragmentador = new Fragmentador(3, 3);
+
+            assertThat(fragmentador.redistribuindo()).isFalse();
+            assertThat(fragmentador.fragmentoAnterior(UUID.randomUUID())).isEmpty();
+        }
+    }
+}
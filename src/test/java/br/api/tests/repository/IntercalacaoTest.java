@@ -0,0 +1,40 @@
+package br.api.tests.repository;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntercalacaoTest {
+
+    @Nested
+    class Intercalar {
+        @Test
+        void deveJuntarListasOrdenadas() {
+            var resultado = Intercalacao.intercalar(List.of(List.of(1, 4, 7), List.of(2, 5), List.of(), List.of(3, 6)),
+                    Comparator.<Integer>naturalOrder(), Function.identity(), 0, 10);
+
+            assertThat(resultado).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        }
+
+        @Test
+        void deveAplicarDeslocamentoELimite() {
+            var resultado = Intercalacao.intercalar(List.of(List.of(9, 6, 3), List.of(8, 5, 2), List.of(7, 4, 1)),
+                    Comparator.<Integer>reverseOrder(), Function.identity(), 3, 4);
+
+            assertThat(resultado).containsExactly(6, 5, 4, 3);
+        }
+
+        @Test
+        void deveDescartarChavesRepetidasAntesDoDeslocamento() {
+            var resultado = Intercalacao.intercalar(List.of(List.of(1, 2, 3), List.of(2, 4)),
+                    Comparator.<Integer>naturalOrder(), Function.identity(), 1, 10);
+
+            assertThat(resultado).containsExactly(2, 3, 4);
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package br.api.tests.repository;
 
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.OrdenacaoMensagens;
 import br.api.tests.utils.MensagemHelper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -21,6 +33,12 @@ class MensagemRepositoryIT {
     @Autowired
     private MensagemRepository mensagemRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Nested
     class CriarTabela {
         @Test
@@ -82,6 +100,70 @@ class MensagemRepositoryIT {
         }
     }
 
+    @Nested
+    class AlterarMensagem {
+        @Test
+        void deveDevolverMensagemAlteradaNaMesmaInstrucao() {
+            // Arrange
+            var mensagemSalva = mensagemRepository.save(MensagemHelper.gerarMensagem().toBuilder().gostei(4).build());
+            var dataAlteracao = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            var estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            estatisticas.setStatisticsEnabled(true);
+            estatisticas.clear();
+
+            try {
+                // Act
+                var mensagemAlterada = mensagemRepository.alterarConteudo(
+                        mensagemSalva.getId(), "maria", "alterada", dataAlteracao, null);
+
+                // Assert
+                assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+                assertThat(mensagemAlterada).hasValueSatisfying(mensagem -> {
+                    assertThat(mensagem.getId()).isEqualTo(mensagemSalva.getId());
+                    assertThat(mensagem.getUsuario()).isEqualTo("maria");
+                    assertThat(mensagem.getConteudo()).isEqualTo("alterada");
+                    assertThat(mensagem.getDataCriacao()).isEqualTo(mensagemSalva.getDataCriacao());
+                    assertThat(mensagem.getDataAlteracao()).isEqualTo(dataAlteracao);
+                    assertThat(mensagem.getGostei()).isEqualTo(4);
+                    assertThat(mensagem.getVersao()).isEqualTo(mensagemSalva.getVersao() + 1);
+                });
+            } finally {
+                estatisticas.setStatisticsEnabled(false);
+            }
+        }
+
+        @Test
+        void devePermitirAlterarMensagemNaVersao() {
+            // Arrange
+            var mensagemSalva = mensagemRepository.save(MensagemHelper.gerarMensagem());
+            var dataAlteracao = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+            // Act
+            var mensagemAlterada = mensagemRepository.alterarConteudo(
+                    mensagemSalva.getId(), "maria", "alterada", dataAlteracao, mensagemSalva.getVersao());
+
+            // Assert
+            assertThat(mensagemAlterada).map(Mensagem::getVersao).contains(mensagemSalva.getVersao() + 1);
+        }
+
+        @Test
+        void naoDeveAlterarMensagemEmOutraVersao() {
+            // Arrange
+            var mensagemSalva = mensagemRepository.save(MensagemHelper.gerarMensagem());
+            var dataAlteracao = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+            // Act
+            var mensagemAlterada = mensagemRepository.alterarConteudo(
+                    mensagemSalva.getId(), "maria", "alterada", dataAlteracao, mensagemSalva.getVersao() + 1);
+
+            // Assert
+            assertThat(mensagemAlterada).isEmpty();
+            assertThat(mensagemRepository.findById(mensagemSalva.getId()))
+                    .map(Mensagem::getConteudo)
+                    .contains(mensagemSalva.getConteudo());
+        }
+    }
+
     @Nested
     class RemoverMensagem {
         @Test
@@ -127,4 +209,81 @@ class MensagemRepositoryIT {
             assertThat(resultadosObtidos).isEmpty();
         }
     }
+
+    @Nested
+    class ListarMensagemComFiltro {
+        @Test
+        void devePermitirFiltrarPorUsuarioEIntervaloDaMaisRecenteParaAMaisAntiga() {
+            // Arrange
+            var agora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            jdbcTemplate.update("insert into mensagem (id, usuario, conteudo, data_criacao, gostei) values "
+                            + "(random_uuid(), 'ana', 'antiga', ?, 0), (random_uuid(), 'ana', 'meio', ?, 0), "
+                            + "(random_uuid(), 'ana', 'nova', ?, 0), (random_uuid(), 'bia', 'outra', ?, 0)",
+                    agora.minusDays(2), agora.minusDays(1), agora, agora.minusDays(1));
+
+            // Act
+            var resultadosObtidos = mensagemRepository.listarResumos(
+                    new FiltroMensagens("ana", agora.minusDays(1), agora.plusSeconds(1)), PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(resultadosObtidos.getTotalElements()).isEqualTo(2);
+            assertThat(resultadosObtidos.getContent())
+                    .extracting(MensagemResumo::conteudo)
+                    .containsExactly("nova", "meio");
+        }
+
+        @Test
+        void deveUsarIndiceDeUsuarioEDataCriacaoNaConsultaPorUsuario() {
+            // Act
+            var plano = jdbcTemplate.queryForObject("explain select * from mensagem where usuario = 'ana' "
+                    + "and data_criacao >= timestamp '2024-01-01 00:00:00' order by data_criacao desc, id desc",
+                    String.class);
+
+            // Assert
+            assertThat(plano).containsIgnoringCase("idx_mensagem_usuario_data_criacao_id");
+        }
+    }
+
+    @Nested
+    class ListarMensagemOrdenada {
+        @ParameterizedTest
+        @CsvSource({
+                "data_criacao, idx_mensagem_data_criacao_id",
+                "data_alteracao, idx_mensagem_data_alteracao_id",
+                "gostei, idx_mensagem_gostei_id"
+        })
+        void deveUsarIndiceParaOrdenarOTopoDaListagem(String coluna, String indice) {
+            // Arrange
+            jdbcTemplate.update("insert into mensagem (id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao) "
+                    + "select random_uuid(), 'usuario', 'conteudo', current_timestamp - x * interval '1' second, "
+                    + "current_timestamp, mod(x, 97), 0 from system_range(1, 5000)");
+            jdbcTemplate.execute("analyze table mensagem");
+
+            // Act
+            var plano = jdbcTemplate.queryForObject("explain select * from mensagem order by "
+                    + coluna + " desc, id desc limit 10", String.class);
+
+            // Assert
+            assertThat(plano)
+                    .containsIgnoringCase(indice)
+                    .containsIgnoringCase("index sorted");
+        }
+
+        @Test
+        void devePermitirOrdenarPorGosteiDesempatandoPeloId() {
+            // Arrange
+            var primeira = mensagemRepository.save(MensagemHelper.gerarMensagem().toBuilder().gostei(5).build());
+            var segunda = mensagemRepository.save(MensagemHelper.gerarMensagem().toBuilder().gostei(5).build());
+            var terceira = mensagemRepository.save(MensagemHelper.gerarMensagem().toBuilder().gostei(9).build());
+
+            // Act
+            var resultadosObtidos = mensagemRepository.listarResumos(
+                    PageRequest.of(0, 10, OrdenacaoMensagens.de("gostei,desc")));
+
+            // Assert
+            assertThat(resultadosObtidos.getContent())
+                    .extracting(MensagemResumo::id)
+                    .containsExactly(terceira.getId(), segunda.getId(), primeira.getId());
+        }
+    }
 }
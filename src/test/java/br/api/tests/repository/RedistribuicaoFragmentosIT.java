@@ -0,0 +1,244 @@
+package br.api.tests.repository;
+
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "mensagens.fragmentacao.habilitada=true",
+        "mensagens.fragmentacao.fragmentos-anteriores=2",
+        "mensagens.fragmentacao.fontes[0].url=jdbc:h2:mem:redistribuicao0" + FragmentacaoIT.H2,
+        "mensagens.fragmentacao.fontes[0].usuario=root",
+        "mensagens.fragmentacao.fontes[1].url=jdbc:h2:mem:redistribuicao1" + FragmentacaoIT.H2 + FragmentacaoIT.ESQUEMA,
+        "mensagens.fragmentacao.fontes[1].usuario=root",
+        "mensagens.fragmentacao.fontes[2].url=jdbc:h2:mem:redistribuicao2" + FragmentacaoIT.H2 + FragmentacaoIT.ESQUEMA,
+        "mensagens.fragmentacao.fontes[2].usuario=root"
+})
+@ActiveProfiles("test")
+public class RedistribuicaoFragmentosIT {
+
+    private static final int MENSAGENS = 60;
+
+    private final Fragmentador anterior = new Fragmentador(2, null);
+    private final Fragmentador atual = new Fragmentador(3, null);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RedistribuicaoFragmentos redistribuicaoFragmentos;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Fragmentador fragmentador;
+
+    private List<UUID> ids;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        for (int fragmento = 0; fragmento < 3; fragmento++) {
+            executar(fragmento, "DELETE FROM mensagem");
+        }
+
+        // estado de antes do terceiro fragmento: tudo distribuído entre os dois primeiros
+        ids = new ArrayList<>();
+        for (int i = 0; i < MENSAGENS; i++) {
+            var id = UUID.randomUUID();
+            ids.add(id);
+            executar(anterior.fragmento(id), """
+                    INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei, versao)
+                    VALUES ('%s', 'joe', 'mensagem %d', CURRENT_TIMESTAMP, 0, 0)""".formatted(id, i));
+        }
+    }
+
+    private static String url(int fragmento) {
+        return "jdbc:h2:mem:redistribuicao" + fragmento + FragmentacaoIT.H2;
+    }
+
+    private static void executar(int fragmento, String sql) throws SQLException {
+        try (var conexao = DriverManager.getConnection(url(fragmento), "root", "");
+             var comando = conexao.createStatement()) {
+            comando.execute(sql);
+        }
+    }
+
+    private static List<UUID> idsNoFragmento(int fragmento) throws SQLException {
+        var encontrados = new ArrayList<UUID>();
+        try (var conexao = DriverManager.getConnection(url(fragmento), "root", "");
+             var resultado = conexao.createStatement().executeQuery("SELECT id FROM mensagem")) {
+            while (resultado.next()) {
+                encontrados.add(resultado.getObject(1, UUID.class));
+            }
+        }
+        return encontrados;
+    }
+
+    private static int gostei(int fragmento, UUID id) throws SQLException {
+        try (var conexao = DriverManager.getConnection(url(fragmento), "root", "");
+             var resultado = conexao.createStatement()
+                     .executeQuery("SELECT gostei FROM mensagem WHERE id = '%s'".formatted(id))) {
+            resultado.next();
+            return resultado.getInt(1);
+        }
+    }
+
+    private UUID umaQueMuda() {
+        return ids.stream().filter(id -> atual.fragmento(id) == 2).findFirst().orElseThrow();
+    }
+
+    @Nested
+    class Redistribuir {
+        @Test
+        void deveMoverSomenteAsMensagensQueMudaramDeFragmento() throws SQLException {
+            var quePrecisamMudar = ids.stream().filter(id -> atual.fragmento(id) == 2).count();
+
+            assertThat(redistribuicaoFragmentos.redistribuir()).isEqualTo(quePrecisamMudar);
+
+            var gravados = new ArrayList<UUID>();
+            for (int fragmento = 0; fragmento < 3; fragmento++) {
+                for (var id : idsNoFragmento(fragmento)) {
+                    assertThat(atual.fragmento(id)).isEqualTo(fragmento);
+                    gravados.add(id);
+                }
+            }
+            assertThat(gravados).containsExactlyInAnyOrderElementsOf(ids);
+            assertThat(redistribuicaoFragmentos.redistribuir()).isZero();
+        }
+
+        @Test
+        void devePreservarAlteracoesFeitasNoFragmentoAnterior() {
+            var id = umaQueMuda();
+            when().post("/mensagens/{id}/gostei", id).then().statusCode(HttpStatus.OK.value());
+
+            redistribuicaoFragmentos.redistribuir();
+
+            when()
+                    .get("/mensagens/{id}", id)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("gostei", equalTo(1));
+        }
+    }
+
+    @Nested
+    class DuranteAMudanca {
+        @Test
+        void deveSomarGosteisRecebidosPelosDoisFragmentosEntreACopiaEARemocao() throws SQLException {
+            var id = umaQueMuda();
+            var interrompida = new AtomicBoolean();
+            var redistribuicao = new RedistribuicaoFragmentos(new JdbcTemplate(dataSource) {
+                @Override
+                public int update(String sql, Object... argumentos) {
+                    if (sql.startsWith("delete") && argumentos.length == 3 && argumentos[0].equals(id)
+                            && interrompida.compareAndSet(false, true)) {
+                        try {
+                            // um gostei que ainda não achou a cópia e caiu na origem
+                            executar(anterior.fragmento(id),
+                                    "UPDATE mensagem SET gostei = gostei + 1 WHERE id = '%s'".formatted(id));
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        // e outro que já a encontrou
+                        RestAssured.when().post("/mensagens/{id}/gostei", id)
+                                .then().statusCode(HttpStatus.OK.value());
+                    }
+                    return super.update(sql, argumentos);
+                }
+            }, fragmentador);
+
+            redistribuicao.redistribuir();
+
+            assertThat(interrompida).isTrue();
+            assertThat(idsNoFragmento(anterior.fragmento(id))).doesNotContain(id);
+            assertThat(gostei(2, id)).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class DuranteARedistribuicao {
+        @Test
+        void deveEncontrarMensagemAindaNoFragmentoAnterior() {
+            when()
+                    .get("/mensagens/{id}", umaQueMuda())
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+
+        @Test
+        void deveListarMensagemCopiadaUmaUnicaVez() throws SQLException {
+            var id = umaQueMuda();
+            executar(2, """
+                    INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei, versao)
+                    VALUES ('%s', 'joe', 'copiada', CURRENT_TIMESTAMP, 0, 0)""".formatted(id));
+
+            var listados = given()
+                    .queryParam("size", 100)
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract().jsonPath().getList("content.id", String.class);
+
+            assertThat(listados).hasSize(MENSAGENS).doesNotHaveDuplicates();
+        }
+
+        @Test
+        void deveListarACopiaDoFragmentoAtual() throws SQLException {
+            var id = umaQueMuda();
+            executar(2, """
+                    INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei, versao)
+                    VALUES ('%s', 'joe', 'copiada', CURRENT_TIMESTAMP, 1, 1)""".formatted(id));
+
+            // a cópia desatualizada, com menos gosteis, viria primeiro nessa ordenação
+            var listados = given()
+                    .queryParam("size", 100)
+                    .queryParam("sort", "gostei,asc")
+                    .when()
+                    .get("/mensagens")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract().jsonPath();
+
+            assertThat(listados.getList("content.id", String.class)).hasSize(MENSAGENS).doesNotHaveDuplicates();
+            assertThat(listados.getString("content.find { it.id == '%s' }.conteudo".formatted(id)))
+                    .isEqualTo("copiada");
+        }
+
+        @Test
+        void deveRemoverDosDoisFragmentos() throws SQLException {
+            var id = umaQueMuda();
+            executar(2, """
+                    INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei, versao)
+                    VALUES ('%s', 'joe', 'copiada', CURRENT_TIMESTAMP, 0, 0)""".formatted(id));
+
+            when().delete("/mensagens/{id}", id).then().statusCode(HttpStatus.OK.value());
+
+            assertThat(idsNoFragmento(2)).doesNotContain(id);
+            assertThat(idsNoFragmento(anterior.fragmento(id))).doesNotContain(id);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package br.api.tests.service;
+
+import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.repository.MensagemRepository;
+import br.api.tests.utils.MensagemHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "mensagens.gostei.agregacao=true",
+        "mensagens.gostei.intervalo=1h",
+        "mensagens.gostei.limite=1000000"
+})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class GosteiContadorAgregadoIT {
+
+    @Autowired
+    private MensagemService mensagemService;
+
+    @Autowired
+    private MensagemRepository mensagemRepository;
+
+    @Autowired
+    private GosteiContadorAgregado gosteiContador;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Nested
+    class IncrementarGostei {
+        @Test
+        void deveMesclarGosteisPendentesNaLeitura() {
+            // Arrange
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+
+            // Act
+            mensagemService.incrementarGostei(id);
+            var mensagemObtida = mensagemService.incrementarGostei(id);
+
+            // Assert
+            assertThat(mensagemObtida.getGostei()).isEqualTo(2);
+            assertThat(mensagemRepository.findById(id).orElseThrow().getGostei()).isZero();
+        }
+
+        @Test
+        void naoDevePerderIncrementosConcorrentesDuranteDescargas() throws InterruptedException {
+            // Arrange
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+            var executor = Executors.newFixedThreadPool(8);
+
+            // Act
+            for (int i = 0; i < 2_000; i++) {
+                executor.submit(() -> gosteiContador.incrementar(id));
+                if (i % 250 == 0) {
+                    executor.submit(gosteiContador::descarregar);
+                }
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+            gosteiContador.descarregar();
+
+            // Assert
+            assertThat(gosteiContador.pendente(id)).isZero();
+            assertThat(mensagemRepository.findById(id).orElseThrow().getGostei()).isEqualTo(2_000);
+            assertThat(meterRegistry.get("mensagens.gostei.descarga").timer().count()).isPositive();
+        }
+    }
+
+    @Nested
+    class Descarregar {
+        @Test
+        void deveRejeitarIncrementoDeMensagemInexistente() {
+            // Arrange
+            var id = UUID.randomUUID();
+
+            // Act & Assert
+            assertThatThrownBy(() -> gosteiContador.incrementar(id))
+                    .isInstanceOf(MensagemNotFoundException.class);
+            assertThat(gosteiContador.pendente(id)).isZero();
+        }
+
+        @Test
+        void deveDescartarIncrementosDeMensagemRemovidaAntesDaDescarga() {
+            // Arrange
+            gosteiContador.descarregar();
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+            gosteiContador.incrementar(id);
+            mensagemService.removerMensagem(id);
+            var descartadosAntes = meterRegistry.get("mensagens.gostei.descartados").counter().count();
+
+            // Act
+            gosteiContador.descarregar();
+
+            // Assert
+            assertThat(gosteiContador.pendente(id)).isZero();
+            assertThat(meterRegistry.get("mensagens.gostei.pendentes").gauge().value()).isZero();
+            assertThat(meterRegistry.get("mensagens.gostei.descartados").counter().count())
+                    .isEqualTo(descartadosAntes + 1);
+        }
+
+        @Test
+        void deveManterIncrementosQuandoDescargaFalhar() {
+            // Arrange
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+            gosteiContador.incrementar(id);
+            jdbcTemplate.execute("ALTER TABLE mensagem ADD CONSTRAINT gostei_bloqueado CHECK (gostei < 1)");
+            try {
+                // Act
+                assertThatThrownBy(gosteiContador::descarregar).isInstanceOf(DataAccessException.class);
+
+                // Assert
+                assertThat(gosteiContador.pendente(id)).isEqualTo(1);
+                assertThat(mensagemService.buscarMensagem(id).getGostei()).isEqualTo(1);
+            } finally {
+                jdbcTemplate.execute("ALTER TABLE mensagem DROP CONSTRAINT gostei_bloqueado");
+            }
+            gosteiContador.descarregar();
+            assertThat(gosteiContador.pendente(id)).isZero();
+            assertThat(mensagemRepository.findById(id).orElseThrow().getGostei()).isEqualTo(1);
+        }
+
+        @Test
+        void naoDeveContarGosteisEmVooDuasVezesNasLeituras() throws Exception {
+            // Arrange
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+            var aceitos = new AtomicInteger();
+            var excesso = new AtomicInteger();
+            var executor = Executors.newSingleThreadExecutor();
+
+            // Act
+            var incrementos = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    gosteiContador.incrementar(id);
+                    aceitos.incrementAndGet();
+                    if (i % 20 == 0) {
+                        gosteiContador.descarregar();
+                    }
+                }
+            });
+            while (!incrementos.isDone()) {
+                var lido = mensagemService.buscarMensagem(id).getGostei();
+                // um incremento pode ter sido somado antes de ser contado como aceito
+                excesso.accumulateAndGet(lido - aceitos.get() - 1, Math::max);
+            }
+            incrementos.get();
+            executor.shutdown();
+
+            // Assert
+            assertThat(excesso.get()).isLessThanOrEqualTo(0);
+            assertThat(mensagemService.buscarMensagem(id).getGostei()).isEqualTo(2_000);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package br.api.tests.service;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.Mensagem;
+import br.api.tests.repository.MensagemArmazenamento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+class IndiceBuscaTest {
+
+    private IndiceBusca indiceBusca;
+
+    @Mock
+    private MensagemArmazenamento mensagemRepository;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        var mensagemProperties = new MensagemProperties();
+        mensagemProperties.getBusca().setLote(3);
+        indiceBusca = new IndiceBusca(mensagemRepository, mensagemProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class Buscar {
+        @Test
+        void deveEncontrarIgnorandoAcentosEMaiusculas() {
+            var id = UUID.randomUUID();
+            indiceBusca.indexar(id, "Reunião de AÇÕES amanhã");
+
+            assertThat(indiceBusca.buscar("reuniao acoes", 10)).containsExactly(id);
+            assertThat(indiceBusca.buscar("AMANHÃ", 10)).containsExactly(id);
+        }
+
+        @Test
+        void deveOrdenarPelaRelevancia() {
+            var poucoRelevante = UUID.randomUUID();
+            var maisRelevante = UUID.randomUUID();
+            var semRelacao = UUID.randomUUID();
+            indiceBusca.indexar(poucoRelevante, "café com leite e pão na padaria do bairro");
+            indiceBusca.indexar(maisRelevante, "café café expresso");
+            indiceBusca.indexar(semRelacao, "chá verde");
+
+            assertThat(indiceBusca.buscar("cafe expresso", 10)).containsExactly(maisRelevante, poucoRelevante);
+        }
+
+        @Test
+        void deveLimitarAosMaisRelevantes() {
+            IntStream.range(0, 20).forEach(i -> indiceBusca.indexar(UUID.randomUUID(), "mensagem numero " + i));
+            var maisRelevante = UUID.randomUUID();
+            indiceBusca.indexar(maisRelevante, "mensagem mensagem");
+
+            assertThat(indiceBusca.buscar("mensagem", 5)).hasSize(5).first().isEqualTo(maisRelevante);
+        }
+
+        @Test
+        void deveIgnorarPalavrasVazias() {
+            indiceBusca.indexar(UUID.randomUUID(), "uma mensagem para o time");
+
+            assertThat(indiceBusca.buscar("para o", 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    class Atualizar {
+        @Test
+        void deveSubstituirOsTermosAoReindexar() {
+            var id = UUID.randomUUID();
+            indiceBusca.indexar(id, "conteúdo antigo");
+            indiceBusca.indexar(id, "conteúdo novo");
+
+            assertThat(indiceBusca.buscar("antigo", 10)).isEmpty();
+            assertThat(indiceBusca.buscar("novo", 10)).containsExactly(id);
+        }
+
+        @Test
+        void deveDeixarDeEncontrarMensagemRemovida() {
+            var id = UUID.randomUUID();
+            indiceBusca.indexar(id, "mensagem removida");
+            indiceBusca.remover(id);
+
+            assertThat(indiceBusca.buscar("removida", 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    class Reconstruir {
+        @Test
+        @SuppressWarnings("unchecked")
+        void deveReconstruirAPartirDoBancoEmLotes() {
+            var mensagens = IntStream.range(0, 10)
+                    .mapToObj(i -> Mensagem.builder().id(UUID.randomUUID()).usuario("joe").conteudo("lote " + i).build())
+                    .toList();
+            doAnswer(invocation -> {
+                Consumer<Mensagem> consumidor = invocation.getArgument(1);
+                mensagens.forEach(consumidor);
+                return null;
+            }).when(mensagemRepository).percorrerTodas(anyInt(), any());
+            var descartada = UUID.randomUUID();
+            indiceBusca.indexar(descartada, "lote antigo");
+
+            indiceBusca.reconstruir();
+
+            assertThat(indiceBusca.buscar("lote", 100))
+                    .hasSize(10)
+                    .containsExactlyInAnyOrderElementsOf(mensagens.stream().map(Mensagem::getId).toList())
+                    .doesNotContain(descartada);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package br.api.tests.service;
 
 import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.exception.MensagensInvalidasException;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
 import br.api.tests.utils.MensagemHelper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,10 +17,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -27,6 +38,9 @@ public class MensagemServiceIT {
     @Autowired
     private MensagemService mensagemService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Nested
     class RegistrarMensagem {
         @Test
@@ -45,6 +59,98 @@ public class MensagemServiceIT {
         }
     }
 
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagensEmLote() {
+            // Arrange
+            var mensagens = new ArrayList<Mensagem>();
+            for (int i = 0; i < 1_200; i++) {
+                mensagens.add(Mensagem.builder().usuario("joe").conteudo("mensagem " + i).build());
+            }
+
+            // Act
+            var ids = mensagemService.registrarMensagens(mensagens);
+
+            // Assert
+            assertThat(ids).hasSize(1_200).doesNotHaveDuplicates();
+            assertThat(mensagemService.buscarMensagem(ids.get(0)).getConteudo()).isEqualTo("mensagem 0");
+            assertThat(mensagemService.buscarMensagem(ids.get(1_199)).getConteudo()).isEqualTo("mensagem 1199");
+        }
+
+        @Test
+        void naoDeveGravarNenhumLoteQuandoMensagemPosteriorForInvalida() {
+            // Arrange
+            var mensagens = new ArrayList<Mensagem>();
+            for (int i = 0; i < 1_200; i++) {
+                mensagens.add(Mensagem.builder().usuario("joe").conteudo("mensagem " + i).build());
+            }
+            mensagens.add(Mensagem.builder().usuario("joe").conteudo("").build());
+
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.registrarMensagens(mensagens))
+                    .isInstanceOf(MensagensInvalidasException.class);
+            assertThat(mensagemService.listasMensagens(Pageable.ofSize(10)).getTotalElements()).isZero();
+        }
+    }
+
+    @Nested
+    class ImportarMensagens {
+        @Test
+        void devePermitirImportarMensagensExportadas() {
+            // Arrange
+            var origem = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
+            var ndjson = new StringBuilder();
+            mensagemService.exportarMensagens(mensagem -> ndjson
+                    .append("{\"usuario\":\"").append(mensagem.getUsuario())
+                    .append("\",\"conteudo\":\"").append(mensagem.getConteudo()).append("\"}\n"));
+            ndjson.append("{\"usuario\":\"joe\"}\n");
+
+            // Act
+            var resultado = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            assertThat(resultado.aceitas()).isEqualTo(1);
+            assertThat(resultado.rejeitadas()).isEqualTo(1);
+            assertThat(resultado.rejeicoes()).singleElement()
+                    .satisfies(rejeicao -> assertThat(rejeicao.linha()).isEqualTo(2));
+            assertThat(mensagemService.listasMensagens(Pageable.unpaged()).getContent())
+                    .hasSize(2)
+                    .allSatisfy(mensagem -> assertThat(mensagem.conteudo()).isEqualTo(origem.getConteudo()));
+        }
+
+        @Test
+        void deveManterIdEDataDeCriacaoAoReimportarExportacao() throws Exception {
+            // Arrange
+            var origem = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
+            var ndjson = new StringBuilder();
+            mensagemService.exportarMensagens(mensagem -> {
+                try {
+                    ndjson.append(objectMapper.writeValueAsString(mensagem)).append('\n');
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            mensagemService.removerMensagem(origem.getId());
+
+            // Act
+            var resultado = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+            var repetido = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            assertThat(resultado.aceitas()).isEqualTo(1);
+            var importada = mensagemService.buscarMensagem(origem.getId());
+            // o formato exportado guarda a data com cinco casas decimais
+            assertThat(importada.getDataCriacao()).isCloseTo(origem.getDataCriacao(), within(10, ChronoUnit.MICROS));
+            assertThat(repetido.aceitas()).isZero();
+            assertThat(repetido.rejeicoes()).singleElement()
+                    .satisfies(rejeicao -> assertThat(rejeicao.motivo()).contains(origem.getId().toString()));
+        }
+    }
+
     @Nested
     class BuscarMensagem {
         @Test
@@ -83,12 +189,15 @@ public class MensagemServiceIT {
             dadosParaAtualizar.setId(mensagemOriginal.getId());
 
             // Act
+            mensagemService.buscarMensagem(mensagemOriginal.getId());
             var mensagemAlterada = mensagemService.alterarMensagem(mensagemOriginal.getId(), dadosParaAtualizar);
 
             // Assert
             assertThat(mensagemAlterada.getId()).isEqualTo(mensagemOriginal.getId());
             assertThat(mensagemAlterada.getConteudo()).isEqualTo(dadosParaAtualizar.getConteudo());
             assertThat(mensagemAlterada.getUsuario()).isEqualTo(dadosParaAtualizar.getUsuario());
+            assertThat(mensagemService.buscarMensagem(mensagemOriginal.getId()).getConteudo())
+                    .isEqualTo(dadosParaAtualizar.getConteudo());
         }
 
         @Test
@@ -127,6 +236,7 @@ public class MensagemServiceIT {
             var mensagemSalva = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
 
             // Act
+            mensagemService.buscarMensagem(mensagemSalva.getId());
             var resultadoObtido = mensagemService.removerMensagem(mensagemSalva.getId());
 
             // Assert
@@ -144,6 +254,46 @@ public class MensagemServiceIT {
         }
     }
 
+    @Nested
+    class IncrementarGostei {
+        @Test
+        void devePermitirIncrementarGostei() {
+            // Arrange
+            var mensagemSalva = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
+
+            // Act
+            var mensagemObtida = mensagemService.incrementarGostei(mensagemSalva.getId());
+
+            // Assert
+            assertThat(mensagemObtida.getGostei()).isEqualTo(1);
+        }
+
+        @Test
+        void naoDevePerderIncrementosConcorrentes() throws InterruptedException {
+            // Arrange
+            var id = mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId();
+            var executor = Executors.newFixedThreadPool(8);
+
+            // Act
+            for (int i = 0; i < 100; i++) {
+                executor.submit(() -> mensagemService.incrementarGostei(id));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+            // Assert
+            assertThat(mensagemService.buscarMensagem(id).getGostei()).isEqualTo(100);
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoIncrementarGosteiIdNaoExiste() {
+            var id = UUID.randomUUID();
+            assertThatThrownBy(() -> mensagemService.incrementarGostei(id))
+                    .isInstanceOf(MensagemNotFoundException.class)
+                    .hasMessage("Mensagem não encontrada.");
+        }
+    }
+
     @Nested
     class ListarMensagem {
         @Test
@@ -153,7 +303,7 @@ public class MensagemServiceIT {
             mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
 
             // Act
-            Page<Mensagem> listaMensagens = mensagemService.listasMensagens(Pageable.unpaged());
+            Page<MensagemResumo> listaMensagens = mensagemService.listasMensagens(Pageable.unpaged());
 
             // Assert
             assertThat(listaMensagens.getTotalElements()).isEqualTo(2);
@@ -162,4 +312,30 @@ public class MensagemServiceIT {
             );
         }
     }
+
+    @Nested
+    class ListarMensagemPorCursor {
+        @Test
+        void devePermitirPercorrerTodasAsMensagensPorCursor() {
+            // Arrange
+            var registradas = new ArrayList<UUID>();
+            for (int i = 0; i < 5; i++) {
+                registradas.add(mensagemService.registrarMensagem(MensagemHelper.gerarMensagem()).getId());
+            }
+
+            // Act
+            var obtidas = new ArrayList<UUID>();
+            String cursor = null;
+            do {
+                var janela = mensagemService.listarMensagensPorCursor(cursor, 2);
+                janela.content().forEach(mensagem -> obtidas.add(mensagem.getId()));
+                cursor = janela.next();
+            } while (cursor != null);
+
+            // Assert
+            assertThat(obtidas)
+                    .doesNotHaveDuplicates()
+                    .containsExactlyInAnyOrderElementsOf(registradas);
+        }
+    }
 }
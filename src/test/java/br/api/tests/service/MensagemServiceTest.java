@@ -1,11 +1,24 @@
 package br.api.tests.service;
 
+import br.api.tests.config.MensagemProperties;
 import br.api.tests.exception.MensagemNotFoundException;
+import br.api.tests.exception.MensagemVersaoConflitanteException;
+import br.api.tests.exception.MensagensInvalidasException;
+import br.api.tests.model.FiltroMensagens;
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemInvalida;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.model.ResultadoImportacao;
 import br.api.tests.repository.MensagemRepository;
 import br.api.tests.utils.MensagemHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -14,15 +27,34 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class MensagemServiceTest {
@@ -37,7 +69,18 @@ class MensagemServiceTest {
     @BeforeEach
     void setup() {
         mock = MockitoAnnotations.openMocks(this);
-        mensagemService = new MensagemServiceImpl(mensagemRepository);
+        var mensagemProperties = new MensagemProperties();
+        mensagemProperties.getLote().setTamanho(2);
+        mensagemProperties.getBuscaPorIds().setTamanhoConsulta(2);
+        mensagemProperties.getBuscaPorIds().setMaximoIds(5);
+        var mensagemCache = new MensagemCache(mensagemProperties, new SimpleMeterRegistry());
+        var gosteiContador = new GosteiContadorDireto(mensagemRepository, mensagemCache);
+        mensagemService = new MensagemServiceImpl(mensagemRepository, gosteiContador, mensagemCache,
+                new ContadorMensagens(mensagemRepository, mensagemProperties),
+                new IndiceBusca(mensagemRepository, mensagemProperties),
+                new RankingGostei(mensagemRepository, mensagemProperties, gosteiContador), mensagemProperties,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(EntityManager.class));
     }
 
     @AfterEach
@@ -68,6 +111,69 @@ class MensagemServiceTest {
             assertThat(mensagemRegistrada.getId()).isNotNull();
             verify(mensagemRepository, times(1)).save(any(Mensagem.class));
         }
+
+        @Test
+        void deveGerarExcecaoQuandoConteudoExcederTamanhoMaximo() {
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setConteudo("x".repeat(Mensagem.TAMANHO_MAXIMO_CONTEUDO + 1));
+
+            assertThatThrownBy(() -> mensagemService.registrarMensagem(mensagem))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("conteúdo não pode passar de 4096 caracteres");
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+        }
+    }
+
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagensEmLotes() {
+            var mensagens = List.of(
+                    MensagemHelper.gerarMensagem(),
+                    MensagemHelper.gerarMensagem(),
+                    MensagemHelper.gerarMensagem());
+            when(mensagemRepository.persistirEmLote(anyList()))
+                    .thenAnswer(invocation -> {
+                        List<Mensagem> lote = invocation.getArgument(0);
+                        lote.forEach(mensagem -> mensagem.setId(UUID.randomUUID()));
+                        return lote;
+                    });
+
+            var ids = mensagemService.registrarMensagens(mensagens);
+
+            assertThat(ids).hasSize(3).doesNotContainNull().doesNotHaveDuplicates();
+            verify(mensagemRepository, times(2)).persistirEmLote(anyList());
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+        }
+
+        @Test
+        void deveRejeitarLoteInteiroQuandoAlgumaMensagemForInvalida() {
+            var mensagens = Arrays.asList(
+                    MensagemHelper.gerarMensagem(),
+                    MensagemHelper.gerarMensagem(),
+                    MensagemHelper.gerarMensagem(),
+                    Mensagem.builder().usuario("joe").build(),
+                    null);
+
+            assertThatThrownBy(() -> mensagemService.registrarMensagens(mensagens))
+                    .isInstanceOf(MensagensInvalidasException.class)
+                    .extracting("invalidas")
+                    .asList()
+                    .containsExactly(
+                            new MensagemInvalida(3, "conteúdo não pode estar vazio"),
+                            new MensagemInvalida(4, "mensagem ausente"));
+            verify(mensagemRepository, never()).persistirEmLote(anyList());
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoLoteExcederMaximo() {
+            var mensagens = Stream.generate(MensagemHelper::gerarMensagem).limit(10_001).toList();
+
+            assertThatThrownBy(() -> mensagemService.registrarMensagens(mensagens))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("quantidade de mensagens excede o máximo de 10000");
+            verify(mensagemRepository, never()).persistirEmLote(anyList());
+        }
     }
 
     @Nested
@@ -87,6 +193,38 @@ class MensagemServiceTest {
             verify(mensagemRepository, times(1)).findById(id);
         }
 
+        @Test
+        void deveBuscarMensagemDoCacheNaSegundaLeitura() {
+            var id = UUID.fromString("e3b1d5a6-4c2f-4f0e-9d7b-8a1c2b3d4e55");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemRepository.findById(id))
+                    .thenReturn(Optional.of(mensagem));
+
+            mensagemService.buscarMensagem(id);
+            var mensagemObtida = mensagemService.buscarMensagem(id);
+
+            assertThat(mensagemObtida).isEqualTo(mensagem).isNotSameAs(mensagem);
+            verify(mensagemRepository, times(1)).findById(id);
+        }
+
+        @Test
+        void deveRecarregarMensagemAposIncrementarGostei() {
+            var id = UUID.fromString("a7c9e1f3-5b2d-4a6c-8e0f-1a2b3c4d5e66");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            var mensagemCurtida = mensagem.toBuilder().gostei(1).build();
+            when(mensagemRepository.findById(id))
+                    .thenReturn(Optional.of(mensagem), Optional.of(mensagemCurtida));
+            when(mensagemRepository.incrementarGostei(id)).thenReturn(1);
+
+            mensagemService.buscarMensagem(id);
+            var mensagemObtida = mensagemService.incrementarGostei(id);
+
+            assertThat(mensagemObtida.getGostei()).isEqualTo(1);
+            verify(mensagemRepository, times(2)).findById(id);
+        }
+
         @Test
         @Severity(SeverityLevel.MINOR)
         void deveGerarExcecaoQuandoBuscarMensagemIdNaoExiste() {
@@ -101,32 +239,164 @@ class MensagemServiceTest {
         }
     }
 
+    @Nested
+    class BuscarMensagens {
+        @Test
+        @SuppressWarnings("unchecked")
+        void devePermitirBuscarMensagensNaOrdemPedidaEmConsultasFracionadas() {
+            var mensagens = List.of(MensagemHelper.gerarMensagemCompleta(), MensagemHelper.gerarMensagemCompleta(),
+                    MensagemHelper.gerarMensagemCompleta());
+            var inexistente = UUID.fromString("6a5b4c3d-2e1f-4a0b-9c8d-7e6f5a4b3c2d");
+            when(mensagemRepository.findAllById(anyIterable()))
+                    .thenAnswer(i -> mensagens.stream()
+                            .filter(mensagem -> ((List<UUID>) i.getArgument(0)).contains(mensagem.getId()))
+                            .toList());
+            var ids = List.of(mensagens.get(2).getId(), inexistente, mensagens.get(0).getId(), mensagens.get(1).getId());
+
+            var resultado = mensagemService.buscarMensagens(ids);
+
+            assertThat(resultado.mensagens())
+                    .extracting(Mensagem::getId)
+                    .containsExactly(mensagens.get(2).getId(), mensagens.get(0).getId(), mensagens.get(1).getId());
+            assertThat(resultado.naoEncontrados()).containsExactly(inexistente);
+            verify(mensagemRepository, times(2)).findAllById(anyIterable());
+            verify(mensagemRepository, never()).findById(any(UUID.class));
+        }
+
+        @Test
+        void deveReaproveitarMensagensEmCache() {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            when(mensagemRepository.findById(mensagem.getId()))
+                    .thenReturn(Optional.of(mensagem));
+            mensagemService.buscarMensagem(mensagem.getId());
+
+            var resultado = mensagemService.buscarMensagens(List.of(mensagem.getId(), mensagem.getId()));
+
+            assertThat(resultado.mensagens()).containsExactly(mensagem);
+            assertThat(resultado.naoEncontrados()).isEmpty();
+            verify(mensagemRepository, never()).findAllById(anyIterable());
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoQuantidadeDeIdsExcederMaximo() {
+            var ids = Stream.generate(UUID::randomUUID).limit(6).toList();
+
+            assertThatThrownBy(() -> mensagemService.buscarMensagens(ids))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("quantidade de ids excede o máximo de 5");
+            verify(mensagemRepository, never()).findAllById(anyIterable());
+        }
+    }
+
     @Nested
     class AlterarMensagem {
         @Test
-        void devePermitirAlterarMensagem() {
+        void deveGerarExcecaoQuandoConteudoAlteradoEstiverVazio() {
+            var id = UUID.fromString("5b7c2d1e-3f4a-4b6c-8d9e-0f1a2b3c4d5e");
+            var mensagemNova = Mensagem.builder().id(id).usuario("joe").conteudo("").build();
+
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagemNova))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("conteúdo não pode estar vazio");
+            verify(mensagemRepository, never())
+                    .alterarConteudo(any(UUID.class), anyString(), anyString(), any(LocalDateTime.class), any());
+        }
+
+        @Test
+        void devePermitirAlterarMensagemSemNovaLeitura() {
             var id = UUID.fromString("28669ca3-2b38-4d96-bff7-1a4e161b8ec1");
-            var mensagemAntiga = MensagemHelper.gerarMensagem();
-            mensagemAntiga.setId(id);
-            var mensagemNova = new Mensagem();
-            mensagemNova.setId(mensagemAntiga.getId());
-            mensagemNova.setUsuario(mensagemAntiga.getUsuario());
+            var mensagemNova = MensagemHelper.gerarMensagem();
+            mensagemNova.setId(id);
             mensagemNova.setConteudo("Conteudo de mensagem");
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), isNull()))
+                    .thenAnswer(i -> Optional.of(mensagemNova.toBuilder()
+                            .dataCriacao(LocalDateTime.now().minusDays(1))
+                            .dataAlteracao(i.getArgument(3))
+                            .gostei(3)
+                            .versao(5L)
+                            .build()));
+
+            var mensagemObtida = mensagemService.alterarMensagem(id, mensagemNova);
+
+            assertThat(mensagemObtida.getId()).isEqualTo(id);
+            assertThat(mensagemObtida.getUsuario()).isEqualTo(mensagemNova.getUsuario());
+            assertThat(mensagemObtida.getConteudo()).isEqualTo("Conteudo de mensagem");
+            assertThat(mensagemObtida.getDataAlteracao()).isNotNull();
+            assertThat(mensagemObtida.getGostei()).isEqualTo(3);
+            assertThat(mensagemObtida.getVersao()).isEqualTo(5L);
+            verify(mensagemRepository, times(1)).alterarConteudo(eq(id), eq(mensagemNova.getUsuario()),
+                    eq("Conteudo de mensagem"), any(LocalDateTime.class), isNull());
+            verify(mensagemRepository, never()).findById(any(UUID.class));
+            verify(mensagemRepository, never()).existsById(any(UUID.class));
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+        }
 
+        @Test
+        void deveInvalidarMensagemEmCacheAoAlterar() {
+            var id = UUID.fromString("9a3f1c2e-7b4d-4e6f-8a0b-1c2d3e4f5a77");
+            var mensagemAntiga = MensagemHelper.gerarMensagem();
+            mensagemAntiga.setId(id);
+            mensagemAntiga.setVersao(2L);
+            var mensagemNova = MensagemHelper.gerarMensagem();
+            mensagemNova.setConteudo("Conteudo alterado");
             when(mensagemRepository.findById(id))
                     .thenReturn(Optional.of(mensagemAntiga));
-            when(mensagemRepository.save(any(Mensagem.class)))
-                    .thenAnswer(i -> i.getArgument(0));
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), isNull()))
+                    .thenReturn(Optional.of(mensagemAntiga.toBuilder().conteudo("Conteudo alterado").versao(7L).build()));
+            mensagemService.buscarMensagem(id);
 
             var mensagemObtida = mensagemService.alterarMensagem(id, mensagemNova);
 
-            assertThat(mensagemObtida).isInstanceOf(Mensagem.class).isNotNull();
-            assertThat(mensagemObtida.getId()).isEqualTo(mensagemNova.getId());
-            assertThat(mensagemObtida.getUsuario()).isEqualTo(mensagemNova.getUsuario());
-            assertThat(mensagemObtida.getConteudo()).isEqualTo(mensagemNova.getConteudo());
-            assertThat(mensagemObtida.getDataAlteracao()).isNotNull();
-            verify(mensagemRepository, times(1)).findById(id);
-            verify(mensagemRepository, times(1)).save(any(Mensagem.class));
+            mensagemService.buscarMensagem(id);
+
+            assertThat(mensagemObtida.getConteudo()).isEqualTo("Conteudo alterado");
+            assertThat(mensagemObtida.getVersao()).isEqualTo(7L);
+            verify(mensagemRepository, times(2)).findById(id);
+        }
+
+        @Test
+        void devePermitirAlterarMensagemNaVersaoEsperada() {
+            var id = UUID.fromString("0d8f7e6a-5b4c-4d3e-8f2a-1b0c9d8e7f61");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), eq(4L)))
+                    .thenReturn(Optional.of(mensagem.toBuilder().versao(5L).build()));
+
+            var mensagemObtida = mensagemService.alterarMensagem(id, mensagem, 4L);
+
+            assertThat(mensagemObtida.getVersao()).isEqualTo(5L);
+            verify(mensagemRepository, never()).findById(any(UUID.class));
+            verify(mensagemRepository, never()).existsById(any(UUID.class));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoVersaoEsperadaEstiverDesatualizada() {
+            var id = UUID.fromString("3e2d1c0b-9a8f-4e7d-8c6b-5a4f3e2d1c09");
+            var mensagem = MensagemHelper.gerarMensagem();
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), eq(1L)))
+                    .thenReturn(Optional.empty());
+            when(mensagemRepository.existsById(id))
+                    .thenReturn(true);
+
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagem, 1L))
+                    .isInstanceOf(MensagemVersaoConflitanteException.class)
+                    .hasMessage("A mensagem foi alterada por outra requisição.");
+            verify(mensagemRepository, times(1))
+                    .alterarConteudo(any(UUID.class), anyString(), anyString(), any(LocalDateTime.class), any());
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoVersaoEsperadaIdNaoExiste() {
+            var id = UUID.fromString("7c6b5a4f-3e2d-4c1b-9a0f-8e7d6c5b4a39");
+            var mensagem = MensagemHelper.gerarMensagem();
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), eq(1L)))
+                    .thenReturn(Optional.empty());
+            when(mensagemRepository.existsById(id))
+                    .thenReturn(false);
+
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagem, 1L))
+                    .isInstanceOf(MensagemNotFoundException.class)
+                    .hasMessage("Mensagem não encontrada.");
         }
 
         @Test
@@ -134,30 +404,29 @@ class MensagemServiceTest {
             var id = UUID.fromString("f426d1fa-23f2-4b0d-836b-279bce3c6738");
             var mensagem = MensagemHelper.gerarMensagem();
             mensagem.setId(id);
-            when(mensagemRepository.findById(id))
+            when(mensagemRepository.alterarConteudo(eq(id), anyString(), anyString(), any(LocalDateTime.class), isNull()))
                     .thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagem))
                     .isInstanceOf(MensagemNotFoundException.class)
                     .hasMessage("Mensagem não encontrada.");
-            verify(mensagemRepository, times(1)).findById(id);
+            verify(mensagemRepository, never()).findById(id);
+            verify(mensagemRepository, never()).existsById(id);
             verify(mensagemRepository, never()).save(any(Mensagem.class));
         }
 
         @Test
         void deveGerarExcecaoQuandoAlterarMensagemIdMensagemNovaDiferente() {
             var id = UUID.fromString("4c68505b-6dff-4db5-ae7e-f63ec9ad0753");
-            var mensagemAntiga = MensagemHelper.gerarMensagem();
-            mensagemAntiga.setId(id);
             var mensagemNova = MensagemHelper.gerarMensagem();
             mensagemNova.setId(UUID.fromString("ca1fe924-f46e-4c15-a708-af031cd793c3"));
             mensagemNova.setConteudo("Conteudo mensagem");
-            when(mensagemRepository.findById(id)).thenReturn(Optional.of(mensagemAntiga));
 
             assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagemNova))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("mensagem não apresenta o ID correto");
-            verify(mensagemRepository, times(1)).findById(id);
+            verify(mensagemRepository, never())
+                    .alterarConteudo(any(UUID.class), anyString(), anyString(), any(LocalDateTime.class), any());
             verify(mensagemRepository, never()).save(any(Mensagem.class));
         }
     }
@@ -167,30 +436,78 @@ class MensagemServiceTest {
         @Test
         void devePermitirRemoverMensagem() {
             var id = UUID.fromString("d1f8c5b2-3e4f-4c9a-8b0c-6d7e8f9a0b1c");
-            var mensagem = MensagemHelper.gerarMensagem();
-            mensagem.setId(id);
-            when(mensagemRepository.findById(id))
-                    .thenReturn(Optional.of(mensagem));
-            doNothing().when(mensagemRepository).deleteById(id);
+            when(mensagemRepository.removerPorId(id))
+                    .thenReturn(1);
 
             var mensagemRemovida = mensagemService.removerMensagem(id);
 
             assertThat(mensagemRemovida).isTrue();
-            verify(mensagemRepository, times(1)).findById(id);
-            verify(mensagemRepository, times(1)).deleteById(id);
+            verify(mensagemRepository, times(1)).removerPorId(id);
+            verify(mensagemRepository, never()).findById(id);
+            verify(mensagemRepository, never()).deleteById(id);
         }
 
         @Test
         void deveGerarExcecaoQuandoRemoverMensagemIdNaoExiste() {
             var id = UUID.fromString("3625eb65-1e46-4f44-93f8-247c6d14b726");
-            when(mensagemRepository.findById(id))
-                    .thenReturn(Optional.empty());
+            when(mensagemRepository.removerPorId(id))
+                    .thenReturn(0);
 
             assertThatThrownBy(() -> mensagemService.removerMensagem(id))
                     .isInstanceOf(MensagemNotFoundException.class)
                     .hasMessage("Mensagem não encontrada.");
-            verify(mensagemRepository, times(1)).findById(id);
-            verify(mensagemRepository, never()).deleteById(any(UUID.class));
+            verify(mensagemRepository, times(1)).removerPorId(id);
+        }
+    }
+
+    @Nested
+    class IncrementarGostei {
+        @Test
+        void devePermitirIncrementarGostei() {
+            var id = UUID.fromString("5b0e4c4e-5a3c-4f55-9a8e-1f2f6b1a7c11");
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            mensagem.setGostei(1);
+            when(mensagemRepository.incrementarGostei(id)).thenReturn(1);
+            when(mensagemRepository.findById(id)).thenReturn(Optional.of(mensagem));
+
+            var mensagemObtida = mensagemService.incrementarGostei(id);
+
+            assertThat(mensagemObtida.getGostei()).isEqualTo(1);
+            verify(mensagemRepository, times(1)).incrementarGostei(id);
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+        }
+
+        @Test
+        void deveRegistrarNoRankingAoIncrementarGostei() {
+            var id = UUID.randomUUID();
+            var mensagem = MensagemHelper.gerarMensagem();
+            mensagem.setId(id);
+            mensagem.setGostei(3);
+            when(mensagemRepository.incrementarGostei(id)).thenReturn(1);
+            when(mensagemRepository.findById(id)).thenReturn(Optional.of(mensagem));
+
+            mensagemService.incrementarGostei(id);
+
+            assertThat(mensagemService.listarMaisCurtidas(10)).containsExactly(new PosicaoRanking(id, 3));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoQuantidadeDoRankingForaDoLimite() {
+            assertThatThrownBy(() -> mensagemService.listarMaisCurtidas(101))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("quantidade de posições deve estar entre 1 e 100");
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoIncrementarGosteiIdNaoExiste() {
+            var id = UUID.fromString("0c7d3f3e-2b55-4a0e-8d43-3c9a2f6f1e22");
+            when(mensagemRepository.incrementarGostei(id)).thenReturn(0);
+
+            assertThatThrownBy(() -> mensagemService.incrementarGostei(id))
+                    .isInstanceOf(MensagemNotFoundException.class)
+                    .hasMessage("Mensagem não encontrada.");
+            verify(mensagemRepository, never()).findById(any(UUID.class));
         }
     }
 
@@ -198,11 +515,11 @@ class MensagemServiceTest {
     class ListarMensagem {
         @Test
         void devePermitirListarMensagem() {
-            Page<Mensagem> listaMensagem = new PageImpl<>(Arrays.asList(
-                    MensagemHelper.gerarMensagem(),
-                    MensagemHelper.gerarMensagem()
+            Page<MensagemResumo> listaMensagem = new PageImpl<>(Arrays.asList(
+                    MensagemHelper.gerarMensagemResumo(),
+                    MensagemHelper.gerarMensagemResumo()
             ));
-            when(mensagemRepository.findAll(any(Pageable.class)))
+            when(mensagemRepository.listarResumos(any(Pageable.class)))
                     .thenReturn(listaMensagem);
 
             var resultadoObtido = mensagemService.listasMensagens(Pageable.unpaged());
@@ -212,10 +529,329 @@ class MensagemServiceTest {
                     .allSatisfy(mensagem -> {
                         assertThat(mensagem)
                                 .isNotNull()
-                                .isInstanceOf(Mensagem.class);
+                                .isInstanceOf(MensagemResumo.class);
                     });
-            verify(mensagemRepository, times(1)).findAll(any(Pageable.class));
+            verify(mensagemRepository, times(1)).listarResumos(any(Pageable.class));
+            verify(mensagemRepository, never()).findAll(any(Pageable.class));
         }
 
+        @Test
+        void devePermitirListarMensagemComFiltro() {
+            var filtro = new FiltroMensagens("joe", LocalDateTime.now().minusDays(1), LocalDateTime.now());
+            var pageable = PageRequest.of(0, 10);
+            when(mensagemRepository.listarResumos(filtro, pageable))
+                    .thenReturn(new PageImpl<>(List.of(MensagemHelper.gerarMensagemResumo())));
+
+            var resultadoObtido = mensagemService.listasMensagens(filtro, pageable);
+
+            assertThat(resultadoObtido).hasSize(1);
+            verify(mensagemRepository, never()).listarResumos(any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoIntervaloDoFiltroInvalido() {
+            var agora = LocalDateTime.now();
+            var filtro = new FiltroMensagens(null, agora, agora.minusDays(1));
+
+            assertThatThrownBy(() -> mensagemService.listasMensagens(filtro, PageRequest.of(0, 10)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("o início do intervalo deve ser anterior ao fim");
+            verify(mensagemRepository, never()).listarResumos(any(FiltroMensagens.class), any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagemEmFatiaSemContagem() {
+            var pageable = PageRequest.of(0, 2);
+            Slice<MensagemResumo> fatia = new SliceImpl<>(Arrays.asList(
+                    MensagemHelper.gerarMensagemResumo(),
+                    MensagemHelper.gerarMensagemResumo()), pageable, true);
+            when(mensagemRepository.buscarFatia(pageable))
+                    .thenReturn(fatia);
+
+            var resultadoObtido = mensagemService.listarMensagensEmFatia(pageable);
+
+            assertThat(resultadoObtido.getContent()).hasSize(2);
+            assertThat(resultadoObtido.hasNext()).isTrue();
+            verify(mensagemRepository, never()).count();
+            verify(mensagemRepository, never()).findAll(any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoTamanhoDaPaginaExcederMaximo() {
+            var pageable = PageRequest.of(0, 101);
+
+            assertThatThrownBy(() -> mensagemService.listasMensagens(pageable))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("tamanho da página deve estar entre 1 e 100");
+            assertThatThrownBy(() -> mensagemService.listarMensagensEmFatia(pageable))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(mensagemRepository, never()).listarResumos(any(Pageable.class));
+            verify(mensagemRepository, never()).buscarFatia(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class ContarMensagens {
+        @Test
+        void deveAjustarTotalSemRecontarNasEscritas() {
+            var id = UUID.fromString("2f1e0d9c-8b7a-4f6e-9d5c-4b3a2f1e0d9c");
+            when(mensagemRepository.count())
+                    .thenReturn(10L);
+            when(mensagemRepository.save(any(Mensagem.class)))
+                    .thenAnswer(i -> i.<Mensagem>getArgument(0).toBuilder().id(UUID.randomUUID()).build());
+            when(mensagemRepository.persistirEmLote(anyList()))
+                    .thenAnswer(i -> {
+                        List<Mensagem> lote = i.getArgument(0);
+                        lote.forEach(mensagem -> mensagem.setId(UUID.randomUUID()));
+                        return lote;
+                    });
+            when(mensagemRepository.removerPorId(id))
+                    .thenReturn(1);
+
+            assertThat(mensagemService.contarMensagens()).isEqualTo(10L);
+            mensagemService.registrarMensagem(MensagemHelper.gerarMensagem());
+            mensagemService.registrarMensagens(List.of(MensagemHelper.gerarMensagem(), MensagemHelper.gerarMensagem(),
+                    MensagemHelper.gerarMensagem()));
+            mensagemService.removerMensagem(id);
+
+            assertThat(mensagemService.contarMensagens()).isEqualTo(13L);
+            verify(mensagemRepository, times(1)).count();
+        }
+    }
+
+    @Nested
+    class ContadorTotal {
+        private ContadorMensagens contador(Duration recontagem) {
+            var propriedades = new MensagemProperties();
+            propriedades.getTotal().setRecontagem(recontagem);
+            return new ContadorMensagens(mensagemRepository, propriedades);
+        }
+
+        @Test
+        void deveRecontarForaDaThreadQueConsultaOTotal() throws Exception {
+            var threads = new CopyOnWriteArrayList<String>();
+            var contagens = new AtomicLong(10);
+            when(mensagemRepository.count()).thenAnswer(i -> {
+                threads.add(Thread.currentThread().getName());
+                return contagens.getAndSet(12);
+            });
+            var contador = contador(Duration.ofMillis(20));
+            try {
+                assertThat(contador.total()).isEqualTo(10L);
+
+                verify(mensagemRepository, timeout(1_000).atLeast(2)).count();
+                for (var limite = System.nanoTime() + 1_000_000_000L;
+                     contador.total() != 12L && System.nanoTime() < limite; ) {
+                    Thread.sleep(5);
+                }
+
+                assertThat(contador.total()).isEqualTo(12L);
+                assertThat(List.copyOf(threads)).first().isEqualTo(Thread.currentThread().getName());
+                assertThat(List.copyOf(threads).stream().skip(1)).containsOnly("total-recontagem");
+            } finally {
+                contador.encerrar();
+            }
+        }
+
+        @Test
+        void deveDescontarSoOsAjustesAnterioresAContagem() {
+            var contador = contador(Duration.ofHours(1));
+            when(mensagemRepository.count())
+                    .thenAnswer(i -> {
+                        // escrita registrada enquanto a contagem roda, que ela não viu
+                        contador.ajustar(1);
+                        return 10L;
+                    })
+                    .thenReturn(11L);
+            try {
+                contador.ajustar(5);
+
+                assertThat(contador.total()).isEqualTo(11L);
+                contador.recontar();
+                assertThat(contador.total()).isEqualTo(11L);
+            } finally {
+                contador.encerrar();
+            }
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        @SuppressWarnings("unchecked")
+        void devePermitirExportarMensagens() {
+            var mensagem = MensagemHelper.gerarMensagemCompleta();
+            doAnswer(invocation -> {
+                Consumer<Mensagem> consumidor = invocation.getArgument(1);
+                consumidor.accept(mensagem);
+                return null;
+            }).when(mensagemRepository).percorrerTodas(anyInt(), any());
+            var exportadas = new ArrayList<Mensagem>();
+
+            mensagemService.exportarMensagens(exportadas::add);
+
+            assertThat(exportadas).containsExactly(mensagem);
+            verify(mensagemRepository, times(1)).percorrerTodas(eq(1_000), any());
+            verify(mensagemRepository, never()).findAll();
+        }
+    }
+
+    @Nested
+    class ImportarMensagens {
+        @Test
+        void devePermitirImportarMensagensEmLotesRejeitandoLinhasInvalidas() {
+            var ndjson = String.join("\n",
+                    "{\"usuario\":\"joe\",\"conteudo\":\"primeira\"}",
+                    "{\"usuario\":\"\",\"conteudo\":\"sem usuário\"}",
+                    "",
+                    "{\"usuario\":\"ana\",\"conteudo\":\"segunda\"}",
+                    "{\"usuario\":",
+                    "{\"usuario\":\"bia\",\"conteudo\":\"terceira\"}");
+            when(mensagemRepository.persistirEmLote(anyList()))
+                    .thenAnswer(invocation -> {
+                        List<Mensagem> lote = invocation.getArgument(0);
+                        lote.forEach(mensagem -> mensagem.setId(UUID.randomUUID()));
+                        return lote;
+                    });
+
+            var resultado = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(resultado.aceitas()).isEqualTo(3);
+            assertThat(resultado.rejeitadas()).isEqualTo(2);
+            assertThat(resultado.rejeicoes())
+                    .extracting(ResultadoImportacao.Rejeicao::linha)
+                    .containsExactly(2L, 5L);
+            assertThat(resultado.rejeicoes().get(0).motivo()).isEqualTo("usuário não pode estar vazio");
+            assertThat(resultado.rejeicoes().get(1).motivo()).startsWith("JSON inválido");
+            verify(mensagemRepository, times(2)).persistirEmLote(anyList());
+        }
+
+        @Test
+        void deveRejeitarLinhaLongaDemaisSemInterromperAImportacao() {
+            var longa = "{\"usuario\":\"joe\",\"conteudo\":\"" + "x".repeat(64 * 1024) + "\"}";
+            var ndjson = String.join("\r\n",
+                    "{\"usuario\":\"joe\",\"conteudo\":\"primeira\"}",
+                    longa,
+                    "{\"usuario\":\"ana\",\"conteudo\":\"segunda\"}");
+            when(mensagemRepository.persistirEmLote(anyList()))
+                    .thenAnswer(invocation -> {
+                        List<Mensagem> lote = invocation.getArgument(0);
+                        lote.forEach(mensagem -> mensagem.setId(UUID.randomUUID()));
+                        return lote;
+                    });
+
+            var resultado = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(resultado.aceitas()).isEqualTo(2);
+            assertThat(resultado.rejeicoes()).containsExactly(
+                    new ResultadoImportacao.Rejeicao(2, "linha excede o máximo de 65536 caracteres"));
+        }
+
+        @Test
+        void deveManterIdEDataDeCriacaoExportados() {
+            var id = UUID.randomUUID();
+            var ndjson = "{\"id\":\"" + id + "\",\"usuario\":\"joe\",\"conteudo\":\"exportada\","
+                    + "\"dataCriacao\":\"2020-01-02 03:04:05.00000\"}";
+            List<Mensagem> persistidas = new ArrayList<>();
+            when(mensagemRepository.persistirEmLote(anyList())).thenAnswer(invocation -> {
+                persistidas.addAll(invocation.getArgument(0));
+                return invocation.getArgument(0);
+            });
+
+            mensagemService.importarMensagens(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(persistidas).singleElement().satisfies(mensagem -> {
+                assertThat(mensagem.getId()).isEqualTo(id);
+                assertThat(mensagem.getDataCriacao()).isEqualTo(LocalDateTime.of(2020, 1, 2, 3, 4, 5));
+            });
+        }
+
+        @Test
+        void deveRejeitarIdJaGravado() {
+            var existente = UUID.randomUUID();
+            var repetida = UUID.randomUUID();
+            var gravados = new ArrayList<UUID>(List.of(existente));
+            when(mensagemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+                Iterable<UUID> ids = invocation.getArgument(0);
+                var encontradas = new ArrayList<Mensagem>();
+                ids.forEach(id -> {
+                    if (gravados.contains(id)) {
+                        encontradas.add(Mensagem.builder().id(id).build());
+                    }
+                });
+                return encontradas;
+            });
+            when(mensagemRepository.persistirEmLote(anyList())).thenAnswer(invocation -> {
+                List<Mensagem> lote = invocation.getArgument(0);
+                lote.forEach(mensagem -> gravados.add(mensagem.getId()));
+                return lote;
+            });
+            // a terceira linha repete a segunda, mas já num lote seguinte
+            var ndjson = Stream.of(existente, repetida, repetida)
+                    .map(id -> "{\"id\":\"" + id + "\",\"usuario\":\"joe\",\"conteudo\":\"importada\"}")
+                    .collect(Collectors.joining("\n"));
+
+            var resultado = mensagemService.importarMensagens(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(resultado.aceitas()).isEqualTo(1);
+            assertThat(resultado.rejeitadas()).isEqualTo(2);
+            assertThat(resultado.rejeicoes()).extracting(ResultadoImportacao.Rejeicao::linha).containsExactly(1L, 3L);
+            assertThat(gravados).containsExactly(existente, repetida);
+        }
+    }
+
+    @Nested
+    class ListarMensagemPorCursor {
+        @Test
+        void devePermitirListarPrimeiraJanelaComProximoCursor() {
+            var mensagens = Arrays.asList(
+                    MensagemHelper.gerarMensagemCompleta(),
+                    MensagemHelper.gerarMensagemCompleta(),
+                    MensagemHelper.gerarMensagemCompleta());
+            when(mensagemRepository.buscarPrimeiraJanela(any(Pageable.class)))
+                    .thenReturn(mensagens);
+
+            var resultadoObtido = mensagemService.listarMensagensPorCursor(null, 2);
+
+            assertThat(resultadoObtido.content()).containsExactly(mensagens.get(0), mensagens.get(1));
+            assertThat(resultadoObtido.next()).isNotBlank();
+            verify(mensagemRepository, times(1)).buscarPrimeiraJanela(any(Pageable.class));
+            verify(mensagemRepository, never()).count();
+        }
+
+        @Test
+        void devePermitirListarJanelaAposCursor() {
+            var ultima = MensagemHelper.gerarMensagemCompleta();
+            var cursor = MensagemCursor.de(ultima).codificar();
+            var proxima = MensagemHelper.gerarMensagemCompleta();
+            when(mensagemRepository.buscarJanelaApos(any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                    .thenReturn(List.of(proxima));
+
+            var resultadoObtido = mensagemService.listarMensagensPorCursor(cursor, 2);
+
+            assertThat(resultadoObtido.content()).containsExactly(proxima);
+            assertThat(resultadoObtido.next()).isNull();
+            verify(mensagemRepository, times(1))
+                    .buscarJanelaApos(ultima.getDataCriacao(), ultima.getId(), Pageable.ofSize(3));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoTamanhoDaJanelaExcederMaximo() {
+            assertThatThrownBy(() -> mensagemService.listarMensagensPorCursor(null, 1_000_000))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("tamanho da página deve estar entre 1 e 100");
+            verify(mensagemRepository, never()).buscarPrimeiraJanela(any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExcecaoQuandoCursorInvalido() {
+            assertThatThrownBy(() -> mensagemService.listarMensagensPorCursor("xpto", 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(mensagemRepository, never())
+                    .buscarJanelaApos(any(LocalDateTime.class), any(UUID.class), any(Pageable.class));
+        }
     }
 }
@@ -0,0 +1,196 @@
+package br.api.tests.service;
+
+import br.api.tests.config.MensagemProperties;
+import br.api.tests.model.MensagemResumo;
+import br.api.tests.model.PosicaoRanking;
+import br.api.tests.repository.MensagemArmazenamento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankingGosteiTest {
+
+    private RankingGostei rankingGostei;
+
+    @Mock
+    private MensagemArmazenamento mensagemRepository;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private GosteiContador gosteiContador;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        var mensagemProperties = new MensagemProperties();
+        mensagemProperties.getRanking().setCapacidade(3);
+        mensagemProperties.getRanking().setMaximo(2);
+        rankingGostei = new RankingGostei(mensagemRepository, mensagemProperties, gosteiContador);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class Registrar {
+        @Test
+        void deveOrdenarPorGosteiDesempatandoPeloId() {
+            var menor = new UUID(0, 1);
+            var maior = new UUID(0, 2);
+            var maisCurtida = new UUID(0, 3);
+            rankingGostei.registrar(menor, 5);
+            rankingGostei.registrar(maisCurtida, 9);
+            rankingGostei.registrar(maior, 5);
+
+            assertThat(rankingGostei.topo(3)).containsExactly(
+                    new PosicaoRanking(maisCurtida, 9),
+                    new PosicaoRanking(maior, 5),
+                    new PosicaoRanking(menor, 5));
+        }
+
+        @Test
+        void deveIgnorarValorMenorDoQueORegistrado() {
+            var id = UUID.randomUUID();
+            rankingGostei.registrar(id, 4);
+            rankingGostei.registrar(id, 3);
+
+            assertThat(rankingGostei.topo(2)).containsExactly(new PosicaoRanking(id, 4));
+        }
+
+        @Test
+        void deveDescartarAsMenosCurtidasAlemDaCapacidade() {
+            var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+            for (int i = 0; i < ids.size(); i++) {
+                rankingGostei.registrar(ids.get(i), i + 1);
+            }
+            rankingGostei.registrar(UUID.randomUUID(), 0);
+
+            assertThat(rankingGostei.topo(10)).extracting(PosicaoRanking::id)
+                    .containsExactly(ids.get(3), ids.get(2), ids.get(1));
+        }
+    }
+
+    @Nested
+    class Remover {
+        @Test
+        void deveRemoverSemConsultarQuandoRankingCompleto() {
+            var id = UUID.randomUUID();
+            rankingGostei.registrar(id, 1);
+
+            rankingGostei.remover(id);
+
+            assertThat(rankingGostei.topo(2)).isEmpty();
+            verify(mensagemRepository, never()).buscarFatia(any(Pageable.class));
+        }
+
+        @Test
+        void deveRessemearQuandoTruncadoEAbaixoDoMaximo() {
+            var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+            for (int i = 0; i < ids.size(); i++) {
+                rankingGostei.registrar(ids.get(i), i + 1);
+            }
+            when(mensagemRepository.buscarFatia(any(Pageable.class)))
+                    .thenReturn(new SliceImpl<>(List.of(resumo(ids.get(2), 3), resumo(ids.get(0), 1)),
+                            PageRequest.of(0, 3), false));
+
+            rankingGostei.remover(ids.get(3));
+            rankingGostei.remover(ids.get(1));
+
+            verify(mensagemRepository, times(1)).buscarFatia(any(Pageable.class));
+            assertThat(rankingGostei.topo(2)).extracting(PosicaoRanking::id)
+                    .containsExactly(ids.get(2), ids.get(0));
+        }
+    }
+
+    @Nested
+    class Semear {
+        @Test
+        void deveCarregarAsMaisCurtidasDoBanco() {
+            var id = UUID.randomUUID();
+            when(mensagemRepository.buscarFatia(any(Pageable.class)))
+                    .thenReturn(new SliceImpl<>(List.of(resumo(id, 7)), PageRequest.of(0, 3), false));
+
+            rankingGostei.semear();
+
+            assertThat(rankingGostei.topo(2)).containsExactly(new PosicaoRanking(id, 7));
+        }
+
+        @Test
+        void deveSomarGosteisPendentesAoCarregarDoBanco() {
+            var comPendentes = new UUID(0, 1);
+            var semPendentes = new UUID(0, 2);
+            when(mensagemRepository.buscarFatia(any(Pageable.class)))
+                    .thenReturn(new SliceImpl<>(List.of(resumo(semPendentes, 7), resumo(comPendentes, 5)),
+                            PageRequest.of(0, 3), false));
+            when(gosteiContador.pendente(comPendentes)).thenReturn(4L);
+
+            rankingGostei.semear();
+
+            assertThat(rankingGostei.topo(2)).containsExactly(
+                    new PosicaoRanking(comPendentes, 9),
+                    new PosicaoRanking(semPendentes, 7));
+        }
+
+        @Test
+        void deveManterRegistroFeitoDuranteALeituraDoBanco() {
+            var lida = new UUID(0, 1);
+            var registradaDurante = new UUID(0, 2);
+            when(mensagemRepository.buscarFatia(any(Pageable.class))).thenAnswer(invocacao -> {
+                // a leitura já tinha passado pela mensagem antes do incremento
+                rankingGostei.registrar(registradaDurante, 8);
+                rankingGostei.registrar(lida, 9);
+                return new SliceImpl<>(List.of(resumo(lida, 7), resumo(registradaDurante, 2)),
+                        PageRequest.of(0, 3), false);
+            });
+
+            rankingGostei.semear();
+
+            assertThat(rankingGostei.topo(2)).containsExactly(
+                    new PosicaoRanking(lida, 9),
+                    new PosicaoRanking(registradaDurante, 8));
+        }
+
+        @Test
+        void deveManterRemocaoFeitaDuranteALeituraDoBanco() {
+            var removida = new UUID(0, 1);
+            var restante = new UUID(0, 2);
+            rankingGostei.registrar(removida, 9);
+            when(mensagemRepository.buscarFatia(any(Pageable.class))).thenAnswer(invocacao -> {
+                rankingGostei.remover(removida);
+                return new SliceImpl<>(List.of(resumo(removida, 9), resumo(restante, 4)),
+                        PageRequest.of(0, 3), false);
+            });
+
+            rankingGostei.semear();
+
+            assertThat(rankingGostei.topo(2)).containsExactly(new PosicaoRanking(restante, 4));
+            verify(mensagemRepository, times(1)).buscarFatia(any(Pageable.class));
+        }
+    }
+
+    private static MensagemResumo resumo(UUID id, int gostei) {
+        var timestamp = LocalDateTime.now();
+        return new MensagemResumo(id, "joe", "xpto test", timestamp, timestamp, gostei);
+    }
+}
@@ -2,6 +2,7 @@ package br.api.tests.utils;
 
 
 import br.api.tests.model.Mensagem;
+import br.api.tests.model.MensagemResumo;
 import br.api.tests.repository.MensagemRepository;
 
 import java.time.LocalDateTime;
@@ -27,6 +28,11 @@ public abstract class MensagemHelper {
                 .build();
     }
 
+    public static MensagemResumo gerarMensagemResumo() {
+        var timestamp = LocalDateTime.now();
+        return new MensagemResumo(UUID.randomUUID(), "joe", "xpto test", timestamp, timestamp, 0);
+    }
+
     public static Mensagem registrarMensagem(MensagemRepository repository) {
         var mensagem = gerarMensagem();
         mensagem.setId(UUID.randomUUID());
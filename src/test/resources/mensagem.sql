@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS mensagem (
+    id UUID PRIMARY KEY,
+    usuario VARCHAR(255),
+    conteudo VARCHAR(4096),
+    data_criacao TIMESTAMP(6),
+    data_alteracao TIMESTAMP(6),
+    gostei INTEGER NOT NULL,
+    versao BIGINT DEFAULT 0 NOT NULL
+);